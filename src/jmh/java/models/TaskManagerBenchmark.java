@@ -0,0 +1,167 @@
+package models;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * TaskManagerBenchmark - TaskManager read throughput alone and alongside a writer, from
+ * one thread up to the number of cores.
+ * TaskManager stores its files under ./data, so the jmh profile runs in target/jmh.
+ * Run the whole 1..N thread sweep with:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.main=models.TaskManagerBenchmark
+ * or a single configuration through JMH itself, e.g. -Djmh.args="TaskManagerBenchmark.read -t 4".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskManagerBenchmark {
+    private static final int STUDENTS = 200;
+    private static final int TASKS_PER_STUDENT = 100;
+    private static final int BATCH = 500;
+    private static final String[] CATEGORIES = {"Exams", "Homework", "Projects", "Reading", "Personal"};
+
+    private TaskManager taskManager;
+    private int taskCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        deleteDataFiles();
+        taskManager = new TaskManager();
+
+        LocalDateTime due = LocalDateTime.of(2030, 1, 1, 9, 0);
+        Task.Priority[] priorities = Task.Priority.values();
+        List<TaskManager.BatchOperation> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < STUDENTS * TASKS_PER_STUDENT; i++) {
+            batch.add(TaskManager.BatchOperation.add("Task " + i, "Description of task " + i,
+                    CATEGORIES[i % CATEGORIES.length], priorities[i % priorities.length],
+                    due.plusHours(i % 5000), email(i % STUDENTS)));
+            if (batch.size() == BATCH) {
+                taskManager.applyBatch(batch);
+                batch.clear();
+            }
+        }
+        taskCount = taskManager.getAllTasks().size();
+    }
+
+    /**
+     * The reads behind a dashboard load: one task by id, a first page and the statistics
+     */
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        readOnce(blackhole);
+    }
+
+    /**
+     * Reads while another thread of the same group keeps editing and completing tasks
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public void mixedRead(Blackhole blackhole) {
+        readOnce(blackhole);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public boolean mixedWrite() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = 1 + random.nextInt(taskCount);
+        if (random.nextBoolean()) {
+            return taskManager.toggleTaskCompletion(id);
+        }
+        return taskManager.updateTask(id, "Edited " + random.nextInt(), null, null,
+                Task.Priority.values()[random.nextInt(3)], null);
+    }
+
+    private void readOnce(Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String email = email(random.nextInt(STUDENTS));
+        blackhole.consume(taskManager.getTaskById(1 + random.nextInt(taskCount)));
+        blackhole.consume(taskManager.getTaskPage(email, TaskManager.SortOrder.DUE_DATE, false, null, 20));
+        blackhole.consume(taskManager.getTaskStats(email));
+    }
+
+    private static String email(int student) {
+        return "student" + student + "@example.com";
+    }
+
+    private static void deleteDataFiles() throws IOException {
+        Path data = Paths.get("data");
+        if (Files.isDirectory(data)) {
+            try (Stream<Path> files = Files.list(data)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (file.getFileName().toString().startsWith("tasks.")) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Run read and mixed at 1, 2, 4, ... up to the core count and print read throughput
+     * and speedup over one thread. Mixed runs one writer next to threads - 1 readers.
+     */
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        double readBase = 0;
+        double mixedBase = 0;
+        List<String> rows = new ArrayList<>();
+        for (int threads : threadCounts) {
+            double read = score(new OptionsBuilder()
+                    .include(TaskManagerBenchmark.class.getName() + ".read$")
+                    .threads(threads)
+                    .build(), null);
+            int readers = Math.max(1, threads - 1);
+            double mixed = score(new OptionsBuilder()
+                    .include(TaskManagerBenchmark.class.getName() + ".mixed$")
+                    .threadGroups(readers, 1)
+                    .build(), "mixedRead");
+            if (readBase == 0) {
+                readBase = read;
+                mixedBase = mixed;
+            }
+            rows.add(String.format("%-8d %14.1f %8.2fx %20.1f %8.2fx",
+                    threads, read, read / readBase, mixed, mixed / mixedBase));
+        }
+        System.out.printf("%-8s %14s %9s %20s %9s%n", "threads", "read ops/ms", "speedup",
+                "mixed read ops/ms", "speedup");
+        rows.forEach(System.out::println);
+    }
+
+    /**
+     * @param label Secondary result to report (a group member), or null for the primary result
+     */
+    private static double score(Options options, String label) throws RunnerException {
+        RunResult run = new Runner(options).runSingle();
+        Result<?> result = label != null ? run.getSecondaryResults().get(label) : run.getPrimaryResult();
+        return result.getScore();
+    }
+}
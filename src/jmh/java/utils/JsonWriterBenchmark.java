@@ -0,0 +1,114 @@
+package utils;
+
+import models.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonWriterBenchmark - Task JSON encoding: the old String.format encoder against JsonWriter
+ * Run with: mvn -Pjmh test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonWriterBenchmark {
+    private static final int TASKS = 1_000;
+
+    private final List<Task> tasks = new ArrayList<>(TASKS);
+    private final ByteArrayOutputStream sink = new ByteArrayOutputStream(TASKS * 512);
+
+    @Setup
+    public void setUp() {
+        LocalDateTime due = LocalDateTime.of(2026, 12, 1, 9, 30);
+        Task.Priority[] priorities = Task.Priority.values();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task(i + 1, "Task \"" + i + "\"", "Line one\nline two", "Exams",
+                    priorities[i % priorities.length], due.plusHours(i), "student" + (i % 50) + "@example.com");
+            if (i % 3 == 0) {
+                task.markCompleted();
+            }
+            tasks.add(task);
+        }
+    }
+
+    /**
+     * One task through the pre-JsonWriter encoder
+     */
+    @Benchmark
+    public String legacyFormat() {
+        return legacyToJson(tasks.get(0));
+    }
+
+    /**
+     * One task through Task.toJson(), which takes and returns a pooled writer
+     */
+    @Benchmark
+    public String jsonWriter() {
+        return tasks.get(0).toJson();
+    }
+
+    /**
+     * A whole task list as GET /api/tasks used to build it: one String per task, concatenated
+     */
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public int legacyFormatList() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(legacyToJson(tasks.get(i)));
+        }
+        return json.append(']').length();
+    }
+
+    /**
+     * A whole task list streamed as GET /api/tasks does now
+     */
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public int jsonWriterStream() {
+        sink.reset();
+        try (JsonWriter json = JsonWriter.acquire(sink)) {
+            json.beginArray();
+            for (Task task : tasks) {
+                task.writeJson(json);
+            }
+            json.endArray();
+        }
+        return sink.size();
+    }
+
+    /**
+     * Task.toJson() as it was before JsonWriter (including its incomplete escaping)
+     */
+    private static String legacyToJson(Task task) {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        return String.format(
+                "{\"id\":%d,\"title\":\"%s\",\"description\":\"%s\"," +
+                        "\"category\":\"%s\",\"priority\":\"%s\",\"dueDate\":\"%s\"," +
+                        "\"completed\":%b,\"createdAt\":\"%s\",\"completedAt\":%s," +
+                        "\"studentEmail\":\"%s\"}",
+                task.getId(), escapeJson(task.getTitle()), escapeJson(task.getDescription()),
+                escapeJson(task.getCategory()), task.getPriority().getValue(),
+                task.getDueDate().format(formatter), task.isCompleted(), task.getCreatedAt().format(formatter),
+                task.getCompletedAt() != null ? "\"" + task.getCompletedAt().format(formatter) + "\"" : "null",
+                escapeJson(task.getStudentEmail())
+        );
+    }
+
+    private static String escapeJson(String value) {
+        if (value == null) return "";
+        return value.replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
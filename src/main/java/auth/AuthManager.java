@@ -2,24 +2,62 @@ package auth;
 
 import models.Student;
 import utils.FileHandler;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import utils.GroupCommitFileWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AuthManager - Handles user authentication and registration
  * Demonstrates OOP principles: Encapsulation, Single Responsibility
  */
 public class AuthManager {
+    // Registration order, used for the students file; guarded by "this"
     private List<Student> students;
+    // Normalized email -> student, for O(1) lookups without locking
+    private final ConcurrentMap<String, Student> studentsByEmail = new ConcurrentHashMap<>();
     private FileHandler fileHandler;
+    private GroupCommitFileWriter studentsWriter;
+    private final PasswordHasher passwordHasher;
     private static final String STUDENTS_FILE = "data/students.txt";
-
+    // How often buffered lastLoginAt changes are written; logins within it share one write.
+    // 0 or below writes each login through instead of buffering it
+    private static final long LOGIN_FLUSH_MILLIS = Long.getLong("smarttask.auth.loginFlushMillis", 5000);
+    private static final boolean LOGIN_WRITE_THROUGH = LOGIN_FLUSH_MILLIS <= 0;
+
+    // Students whose non-critical fields (lastLoginAt, login rehash) changed since the last flush
+    private final Set<Student> dirtyStudents = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService backgroundWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "students-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Threads that wait out a registration's students-file commit
+    private final ExecutorService commitWaiters =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("students-commit-", 1).factory());
+
+    // flush() is only scheduled here: it first runs LOGIN_FLUSH_MILLIS later, or at shutdown
+    // (never periodically in write-through mode)
+    @SuppressWarnings("this-escape")
     public AuthManager() {
         this.students = new ArrayList<>();
         this.fileHandler = new FileHandler();
+        this.studentsWriter = new GroupCommitFileWriter(STUDENTS_FILE, this::studentLines);
+        this.passwordHasher = new PasswordHasher();
         loadStudents();
+        if (!LOGIN_WRITE_THROUGH) {
+            backgroundWriter.scheduleWithFixedDelay(this::flush, LOGIN_FLUSH_MILLIS, LOGIN_FLUSH_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "students-flush"));
     }
 
     /**
@@ -27,30 +65,13 @@ public class AuthManager {
      */
     public boolean register(String firstName, String lastName, String email,
                             String studentId, String major, String password) {
-        // Validate inputs
-        if (!isValidEmail(email) || !isValidPassword(password)) {
-            return false;
-        }
-
-        if (firstName == null || firstName.trim().isEmpty() ||
-                lastName == null || lastName.trim().isEmpty()) {
-            return false;
-        }
-
-        // Check if email already exists
-        if (findStudentByEmail(email) != null) {
+        if (!isValidRegistration(firstName, lastName, email, password)) {
             return false;
         }
 
         // Hash the password for security
-        String hashedPassword = hashPassword(password);
-
-        // Create new student
-        Student student = new Student(email, firstName, lastName, studentId, major, hashedPassword);
-        students.add(student);
-
-        // Save to file
-        return saveStudents();
+        String hashedPassword = passwordHasher.hash(password);
+        return addStudent(firstName, lastName, email, studentId, major, hashedPassword);
     }
 
     /**
@@ -64,10 +85,21 @@ public class AuthManager {
         Student student = findStudentByEmail(email);
 
         if (student != null && student.isActive()) {
-            String hashedPassword = hashPassword(password);
-            if (hashedPassword.equals(student.getHashedPassword())) {
-                student.updateLastLogin();
-                saveStudents();
+            String storedHash = student.getHashedPassword();
+            if (passwordHasher.verify(password, storedHash)) {
+                // Upgrade legacy or weaker hashes while we have the plaintext
+                String rehashed = passwordHasher.needsRehash(storedHash) ? passwordHasher.hash(password) : null;
+                synchronized (this) {
+                    if (rehashed != null && storedHash.equals(student.getHashedPassword())) {
+                        student.setHashedPassword(rehashed);
+                    }
+                    student.updateLastLogin();
+                    // Buffered: a rehash lost to a crash is harmless, the old hash still verifies
+                    dirtyStudents.add(student);
+                }
+                if (LOGIN_WRITE_THROUGH) {
+                    flush();
+                }
                 return student;
             }
         }
@@ -75,6 +107,29 @@ public class AuthManager {
         return null;
     }
 
+    /**
+     * login() on the password hashing pool, leaving the calling thread free
+     * @throws PasswordHasher.BusyException if the hashing pool is saturated
+     */
+    public CompletableFuture<Student> loginAsync(String email, String password) {
+        return passwordHasher.submit(() -> login(email, password));
+    }
+
+    /**
+     * register() with only the hashing on the password hashing pool; the students-file
+     * commit is waited for on a virtual thread, so slow disk never holds a hashing thread
+     * @throws PasswordHasher.BusyException if the hashing pool is saturated
+     */
+    public CompletableFuture<Boolean> registerAsync(String firstName, String lastName, String email,
+                                                    String studentId, String major, String password) {
+        if (!isValidRegistration(firstName, lastName, email, password)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return passwordHasher.submit(() -> passwordHasher.hash(password))
+                .thenApplyAsync(hashedPassword ->
+                        addStudent(firstName, lastName, email, studentId, major, hashedPassword), commitWaiters);
+    }
+
     /**
      * Change student password
      */
@@ -86,10 +141,11 @@ public class AuthManager {
         Student student = findStudentByEmail(email);
 
         if (student != null) {
-            String hashedOldPassword = hashPassword(oldPassword);
-            if (hashedOldPassword.equals(student.getHashedPassword())) {
-                String hashedNewPassword = hashPassword(newPassword);
-                student.setHashedPassword(hashedNewPassword);
+            if (passwordHasher.verify(oldPassword, student.getHashedPassword())) {
+                String hashedNewPassword = passwordHasher.hash(newPassword);
+                synchronized (this) {
+                    student.setHashedPassword(hashedNewPassword);
+                }
                 return saveStudents();
             }
         }
@@ -104,14 +160,16 @@ public class AuthManager {
         Student student = findStudentByEmail(email);
 
         if (student != null) {
-            if (firstName != null && !firstName.trim().isEmpty()) {
-                student.setFirstName(firstName.trim());
-            }
-            if (lastName != null && !lastName.trim().isEmpty()) {
-                student.setLastName(lastName.trim());
-            }
-            if (major != null && !major.trim().isEmpty()) {
-                student.setMajor(major.trim());
+            synchronized (this) {
+                if (firstName != null && !firstName.trim().isEmpty()) {
+                    student.setFirstName(firstName.trim());
+                }
+                if (lastName != null && !lastName.trim().isEmpty()) {
+                    student.setLastName(lastName.trim());
+                }
+                if (major != null && !major.trim().isEmpty()) {
+                    student.setMajor(major.trim());
+                }
             }
             return saveStudents();
         }
@@ -126,7 +184,9 @@ public class AuthManager {
         Student student = findStudentByEmail(email);
 
         if (student != null) {
-            student.deactivate();
+            synchronized (this) {
+                student.deactivate();
+            }
             return saveStudents();
         }
 
@@ -136,7 +196,7 @@ public class AuthManager {
     /**
      * Get all students (for admin purposes)
      */
-    public List<Student> getAllStudents() {
+    public synchronized List<Student> getAllStudents() {
         return new ArrayList<>(students);
     }
 
@@ -154,39 +214,42 @@ public class AuthManager {
         return findStudentByEmail(email) != null;
     }
 
+    private static boolean isValidRegistration(String firstName, String lastName, String email, String password) {
+        return isValidEmail(email) && isValidPassword(password)
+                && firstName != null && !firstName.trim().isEmpty()
+                && lastName != null && !lastName.trim().isEmpty();
+    }
+
     /**
-     * Find student by email (internal method)
+     * Add a student with an already hashed password and wait for the students file commit
+     * @return false if the email is taken or the write failed
      */
-    private Student findStudentByEmail(String email) {
-        if (email == null) return null;
+    private boolean addStudent(String firstName, String lastName, String email,
+                               String studentId, String major, String hashedPassword) {
+        synchronized (this) {
+            // Create new student, unless the email already exists
+            Student student = new Student(email, firstName, lastName, studentId, major, hashedPassword);
+            if (studentsByEmail.putIfAbsent(normalizeEmail(email), student) != null) {
+                return false;
+            }
+            students.add(student);
+        }
 
-        return students.stream()
-                .filter(student -> student.getEmail().equalsIgnoreCase(email))
-                .findFirst()
-                .orElse(null);
+        // Save to file
+        return saveStudents();
     }
 
     /**
-     * Hash password using SHA-256
+     * Find student by email (internal method), case-insensitively
      */
-    private String hashPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes());
-            StringBuilder hexString = new StringBuilder();
-
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
+    private Student findStudentByEmail(String email) {
+        if (email == null) return null;
 
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
-        }
+        return studentsByEmail.get(normalizeEmail(email));
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -197,7 +260,8 @@ public class AuthManager {
             List<String> lines = fileHandler.readFile(STUDENTS_FILE);
             for (String line : lines) {
                 Student student = Student.fromFileString(line);
-                if (student != null) {
+                // The first record wins if the file somehow holds an email twice
+                if (student != null && studentsByEmail.putIfAbsent(normalizeEmail(student.getEmail()), student) == null) {
                     students.add(student);
                 }
             }
@@ -208,20 +272,49 @@ public class AuthManager {
     }
 
     /**
-     * Save students to file
+     * Save students to file.
+     * Concurrent callers are group-committed into a single write + fsync; each returns
+     * once a write containing its change is durable. Must not be called while holding the lock.
      */
     private boolean saveStudents() {
-        try {
-            List<String> lines = new ArrayList<>();
-            for (Student student : students) {
-                lines.add(student.toFileString());
-            }
-            fileHandler.writeFile(STUDENTS_FILE, lines);
-            return true;
-        } catch (Exception e) {
-            System.err.println("Error saving students: " + e.getMessage());
-            return false;
+        return studentsWriter.commit();
+    }
+
+    /**
+     * Write buffered lastLoginAt changes (and login rehashes) now.
+     * Runs every LOGIN_FLUSH_MILLIS (after each login in write-through mode) and at shutdown;
+     * a no-op when nothing is dirty.
+     */
+    public void flush() {
+        if (dirtyStudents.isEmpty()) {
+            return;
+        }
+        List<Student> flushing = new ArrayList<>(dirtyStudents);
+        dirtyStudents.removeAll(flushing);
+        if (!saveStudents()) {
+            dirtyStudents.addAll(flushing); // retry on the next interval
+        }
+    }
+
+    /**
+     * Stop the background writer, hashing pool and commit waiters, writing anything still buffered
+     */
+    public void shutdown() {
+        backgroundWriter.shutdownNow();
+        flush();
+        passwordHasher.shutdown();
+        commitWaiters.shutdown();
+    }
+
+    /**
+     * Serialize all students for the students file
+     */
+    private synchronized List<String> studentLines() {
+        List<String> lines = new ArrayList<>();
+        for (Student student : students) {
+            lines.add(student.toFileString());
         }
+        return lines;
     }
 
     /**
@@ -244,7 +337,7 @@ public class AuthManager {
     /**
      * Get user statistics
      */
-    public String getUserStats() {
+    public synchronized String getUserStats() {
         long totalUsers = students.size();
         long activeUsers = students.stream().filter(Student::isActive).count();
         long inactiveUsers = totalUsers - activeUsers;
@@ -0,0 +1,177 @@
+package auth;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PasswordHasher - Salted PBKDF2 password hashes, computed on a bounded pool
+ * Hashes are stored as "pbkdf2$<iterations>$<salt>$<hash>" (base64), so the work factor
+ * can be raised later without invalidating existing passwords. Unsalted SHA-256 hex
+ * hashes from older students files still verify; needsRehash() reports them.
+ *
+ * Hashing is deliberately slow, so callers that must not stall (the web server) run it
+ * on this class's pool via submit(). When every thread is busy and the queue is full,
+ * submit() fails fast with BusyException instead of queueing more latency.
+ *
+ * Configuration (system properties):
+ *   smarttask.auth.pbkdf2Iterations  work factor for new hashes (default 120000)
+ *   smarttask.auth.hashThreads       hashing threads (default: available processors)
+ *   smarttask.auth.hashQueue         hash jobs waiting for a thread (default 32)
+ */
+public class PasswordHasher {
+    private static final String PREFIX = "pbkdf2";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadPoolExecutor pool;
+
+    public PasswordHasher() {
+        this(Integer.getInteger("smarttask.auth.pbkdf2Iterations", 120_000),
+                Integer.getInteger("smarttask.auth.hashThreads", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("smarttask.auth.hashQueue", 32));
+    }
+
+    /**
+     * @param iterations PBKDF2 work factor for new hashes
+     * @param threads Hashing threads
+     * @param queueCapacity Jobs allowed to wait for a thread before submit() rejects
+     */
+    public PasswordHasher(int iterations, int threads, int queueCapacity) {
+        this.iterations = iterations;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Hash a password with a fresh salt
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt)
+                + "$" + encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * Check a password against a stored hash in either format
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX + "$")) {
+            return MessageDigest.isEqual(legacyHash(password).getBytes(), stored.getBytes());
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[3]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, decoder.decode(parts[2]), Integer.parseInt(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return false; // corrupt record
+        }
+    }
+
+    /**
+     * True if a stored hash is legacy SHA-256 or uses a lower work factor than configured
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX + "$")) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length() + 1);
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length() + 1, end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Run a hashing job on the pool
+     * @throws BusyException if the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> job) {
+        try {
+            return CompletableFuture.supplyAsync(job, pool);
+        } catch (RejectedExecutionException e) {
+            throw new BusyException();
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new RuntimeException(ALGORITHM + " not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Unsalted SHA-256 hex, the format used before PBKDF2
+     */
+    private static String legacyHash(String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(password.getBytes());
+            StringBuilder hexString = new StringBuilder();
+
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * Every hashing thread is busy and the queue is full; the caller should shed the request
+     */
+    public static class BusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BusyException() {
+            super("Password hashing is saturated, try again shortly");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package auth;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SessionManager - In-memory bearer-token sessions
+ * Tokens are 256-bit random values; validating one is a single hash lookup. Sessions
+ * expire a fixed time after login, so creation order is also expiry order: expired
+ * (and, past the size bound, oldest) sessions are evicted from the head of a queue
+ * whenever a new session is created. Sessions do not survive a restart.
+ */
+public class SessionManager {
+    private static final int TOKEN_BYTES = 32;
+
+    private final long ttlMillis;
+    private final int maxSessions;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+    // Sessions in creation (= expiry) order, including logged-out ones not yet reached
+    private final Queue<Session> expiryQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public SessionManager() {
+        this(Long.getLong("smarttask.session.ttlMinutes", 12 * 60),
+                Integer.getInteger("smarttask.session.maxSessions", 100_000));
+    }
+
+    /**
+     * @param ttlMinutes Session lifetime from login
+     * @param maxSessions Live sessions kept; the oldest are evicted beyond this
+     */
+    public SessionManager(long ttlMinutes, int maxSessions) {
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Start a session for an authenticated student
+     */
+    public Session create(String email) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        long now = System.currentTimeMillis();
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes),
+                email, now + ttlMillis);
+
+        sessions.put(session.token, session);
+        expiryQueue.add(session);
+        queued.incrementAndGet();
+        evict(now);
+        return session;
+    }
+
+    /**
+     * Look up a live session
+     * @return the session, or null if the token is unknown, expired or logged out
+     */
+    public Session validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.expiresAt <= System.currentTimeMillis()) {
+            sessions.remove(token, session);
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * End a session (logout)
+     * @return false if the token wasn't a live session
+     */
+    public boolean invalidate(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Drop sessions from the head of the queue while they are expired, logged out,
+     * or over the size bound
+     */
+    private synchronized void evict(long now) {
+        Session head;
+        while ((head = expiryQueue.peek()) != null) {
+            boolean live = sessions.get(head.token) == head;
+            if (live && head.expiresAt > now && sessions.size() <= maxSessions
+                    && queued.get() <= 2 * maxSessions) {
+                return;
+            }
+            expiryQueue.poll();
+            queued.decrementAndGet();
+            if (live) {
+                sessions.remove(head.token, head);
+            }
+        }
+    }
+
+    /**
+     * One logged-in session
+     */
+    public static final class Session {
+        private final String token;
+        private final String email;
+        private final long expiresAt;
+
+        private Session(String token, String email, long expiresAt) {
+            this.token = token;
+            this.email = email;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken() { return token; }
+        public String getEmail() { return email; }
+        public long getExpiresAt() { return expiresAt; }
+    }
+}
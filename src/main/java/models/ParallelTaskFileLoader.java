@@ -0,0 +1,188 @@
+package models;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * ParallelTaskFileLoader - Parses a line-per-task text file on a ForkJoin pool
+ * The file is cut into chunks at newline boundaries; each chunk is memory-mapped and
+ * parsed independently into its own list, and the lists are merged in file order so a
+ * later record for the same id still wins. The highest id is reduced from per-chunk
+ * maxima along the way.
+ *
+ * Configuration (system properties):
+ *   smarttask.load.parallelism  parsing threads (default: available processors)
+ *   smarttask.load.chunkBytes   minimum chunk size (default 1 MiB)
+ */
+final class ParallelTaskFileLoader {
+    private static final int PARALLELISM = Integer.getInteger("smarttask.load.parallelism",
+            Runtime.getRuntime().availableProcessors());
+    private static final long MIN_CHUNK_BYTES = Long.getLong("smarttask.load.chunkBytes", 1 << 20);
+    // Enough chunks per thread to even out lines of uneven length
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelTaskFileLoader() {
+    }
+
+    /**
+     * Tasks parsed from a file, in file order, and the highest id among them
+     */
+    static final class Result {
+        final List<Task> tasks;
+        final int maxId;
+
+        Result(List<Task> tasks, int maxId) {
+            this.tasks = tasks;
+            this.maxId = maxId;
+        }
+    }
+
+    /**
+     * Parse every line of a file
+     * @param parser Line to task, or null for a line to skip; must be thread-safe
+     */
+    static Result load(Path path, Function<String, Task> parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<ChunkParser> parts = new ArrayList<>();
+            for (long[] chunk : split(channel)) {
+                parts.add(new ChunkParser(channel, chunk[0], chunk[1], parser));
+            }
+
+            if (parts.size() > 1 && PARALLELISM > 1) {
+                ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+                try {
+                    pool.submit(() -> ForkJoinTask.invokeAll(parts)).join();
+                } finally {
+                    pool.shutdown();
+                }
+            } else {
+                for (ChunkParser part : parts) {
+                    part.compute();
+                }
+            }
+
+            // Merge in file order; the id maximum is a reduction of the chunk maxima
+            int total = 0;
+            for (ChunkParser part : parts) {
+                if (part.failure != null) {
+                    throw part.failure;
+                }
+                total += part.tasks.size();
+            }
+            List<Task> tasks = new ArrayList<>(total);
+            for (ChunkParser part : parts) {
+                tasks.addAll(part.tasks);
+            }
+            int maxId = parts.stream().mapToInt(part -> part.maxId).max().orElse(0);
+            return new Result(tasks, maxId);
+        }
+    }
+
+    /**
+     * Cut the file into [start, end) ranges that each end just after a newline (or at EOF)
+     */
+    private static List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long target = Math.max(MIN_CHUNK_BYTES, size / ((long) PARALLELISM * CHUNKS_PER_THREAD) + 1);
+        // Chunks are copied into a byte[], so keep each one well under the array limit
+        target = Math.min(target, Integer.MAX_VALUE / 2);
+
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (start < size) {
+            long end = start + target;
+            if (end >= size) {
+                end = size;
+            } else {
+                end = nextLineStart(channel, end, size, probe);
+            }
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Position just after the first newline at or after from, or size if there is none
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException {
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses the lines of one chunk
+     */
+    private static final class ChunkParser extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+
+        // ForkJoinTask is Serializable, but a chunk parser never leaves this process
+        private final transient FileChannel channel;
+        private final long start;
+        private final long end;
+        private final transient Function<String, Task> parser;
+        final transient List<Task> tasks = new ArrayList<>();
+        int maxId;
+        IOException failure;
+
+        ChunkParser(FileChannel channel, long start, long end, Function<String, Task> parser) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.parser = parser;
+        }
+
+        @Override
+        protected Void compute() {
+            byte[] bytes;
+            try {
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                bytes = new byte[mapped.remaining()];
+                mapped.get(bytes);
+            } catch (IOException e) {
+                failure = e;
+                return null;
+            }
+
+            int lineStart = 0;
+            for (int i = 0; i <= bytes.length; i++) {
+                if (i == bytes.length || bytes[i] == '\n') {
+                    int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                    if (lineEnd > lineStart) {
+                        Task task = parser.apply(new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                        if (task != null) {
+                            tasks.add(task);
+                            maxId = Math.max(maxId, task.getId());
+                        }
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            return null;
+        }
+    }
+}
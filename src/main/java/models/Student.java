@@ -1,5 +1,6 @@
 package models;
 
+import utils.JsonWriter;
 import java.time.LocalDateTime;
 
 /**
@@ -32,15 +33,26 @@ public class Student extends User {
     // Override abstract methods from User
     @Override
     public String toJson() {
-        return String.format(
-                "{\"email\":\"%s\",\"firstName\":\"%s\",\"lastName\":\"%s\"," +
-                        "\"studentId\":\"%s\",\"major\":\"%s\",\"createdAt\":\"%s\"," +
-                        "\"lastLoginAt\":%s,\"isActive\":%b}",
-                email, firstName, lastName, studentId, major,
-                createdAt.toString(),
-                lastLoginAt != null ? "\"" + lastLoginAt.toString() + "\"" : "null",
-                isActive
-        );
+        try (JsonWriter json = JsonWriter.acquire()) {
+            writeJson(json);
+            return json.toString();
+        }
+    }
+
+    /**
+     * Encode this student as a JSON object into an existing writer
+     */
+    public void writeJson(JsonWriter json) {
+        json.beginObject()
+                .name("email").value(email)
+                .name("firstName").value(firstName)
+                .name("lastName").value(lastName)
+                .name("studentId").value(studentId)
+                .name("major").value(major)
+                .name("createdAt").value(createdAt)
+                .name("lastLoginAt").value(lastLoginAt)
+                .name("isActive").value(isActive)
+                .endObject();
     }
 
     @Override
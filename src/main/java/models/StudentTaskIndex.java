@@ -0,0 +1,337 @@
+package models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * StudentTaskIndex - All of one student's tasks, kept in several pre-sorted orders
+ * Writers must hold the owning student's lock in TaskManager; readers never lock,
+ * the skip lists are safe to iterate while they change.
+ *
+ * Indexed tasks are never modified: update() replaces a task with a changed copy and
+ * re-keys it, so the indexes (and the statistics counters) follow the change and a
+ * lock-free reader sees either the old or the new version of a task, never a mix.
+ */
+class StudentTaskIndex {
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    // Ids are allocated in creation order, so this doubles as the "created" index
+    private final ConcurrentSkipListMap<Integer, Task> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<IndexKey, Task> byDueDate = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<IndexKey, Task> byPriority = new ConcurrentSkipListMap<>();
+    // Pending (not completed) tasks only, by due date
+    private final ConcurrentSkipListMap<IndexKey, Task> pendingByDue = new ConcurrentSkipListMap<>();
+    // Full-text index over titles and descriptions
+    private final TaskSearchIndex text = new TaskSearchIndex();
+
+    // Statistics, maintained incrementally; written under the student lock
+    private volatile int total;
+    private volatile int completed;
+    // Pending task count per due day (epoch day), for "due today"
+    private final Map<Long, Integer> pendingByDay = new HashMap<>();
+    // overdueCount = pending tasks due before overdueHorizon; the horizon is moved up to "now" lazily
+    private long overdueHorizon = Long.MIN_VALUE;
+    private int overdueCount;
+
+    void add(Task task) {
+        byId.put(task.getId(), task);
+        byDueDate.put(dueKey(task), task);
+        byPriority.put(priorityKey(task), task);
+        text.add(task);
+        total++;
+        if (task.isCompleted()) {
+            completed++;
+        } else {
+            addPending(task);
+        }
+    }
+
+    /**
+     * Remove a task (matched by identity, not just id)
+     * @return false if that task wasn't indexed
+     */
+    boolean remove(Task task) {
+        if (!byId.remove(task.getId(), task)) {
+            return false;
+        }
+        byDueDate.remove(dueKey(task));
+        byPriority.remove(priorityKey(task));
+        text.remove(task);
+        total--;
+        if (task.isCompleted()) {
+            completed--;
+        } else {
+            removePending(task);
+        }
+        return true;
+    }
+
+    /**
+     * Replace a task with a copy that has the change applied, re-keyed in every sorted index.
+     * The task itself is left untouched for readers still holding it.
+     * @return the new version of the task
+     */
+    Task update(Task task, Consumer<Task> change) {
+        Task updated = new Task(task);
+        change.accept(updated);
+
+        if (task.isCompleted()) {
+            completed--;
+        } else {
+            removePending(task);
+        }
+        if (updated.isCompleted()) {
+            completed++;
+        } else {
+            addPending(updated);
+        }
+
+        IndexKey oldDue = dueKey(task);
+        IndexKey oldPriority = priorityKey(task);
+        IndexKey newDue = dueKey(updated);
+        IndexKey newPriority = priorityKey(updated);
+        if (!newDue.equals(oldDue)) {
+            byDueDate.remove(oldDue);
+        }
+        if (!newPriority.equals(oldPriority)) {
+            byPriority.remove(oldPriority);
+        }
+        byDueDate.put(newDue, updated);
+        byPriority.put(newPriority, updated);
+        text.update(task, updated);
+        byId.replace(updated.getId(), updated);
+        return updated;
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    int size() {
+        return total;
+    }
+
+    /**
+     * Current statistics. Caller holds the student lock (the overdue horizon moves).
+     * Cost is O(1) plus, amortized, O(1) per task that became overdue since the last call.
+     * @param nowEpochSecond "now" as returned by toEpochSecond
+     */
+    TaskManager.TaskStats stats(long nowEpochSecond) {
+        advanceOverdueHorizon(nowEpochSecond);
+        int dueToday = pendingByDay.getOrDefault(Math.floorDiv(nowEpochSecond, SECONDS_PER_DAY), 0);
+        int done = completed;
+        int all = total;
+        return new TaskManager.TaskStats(all, done, all - done, overdueCount, dueToday);
+    }
+
+    /**
+     * All tasks in creation order (weakly consistent view)
+     */
+    Collection<Task> all() {
+        return byId.values();
+    }
+
+    /**
+     * All tasks ordered by due date (weakly consistent view, no sorting)
+     */
+    Collection<Task> byDueDate(boolean ascending) {
+        return ascending ? byDueDate.values() : byDueDate.descendingMap().values();
+    }
+
+    /**
+     * Tasks whose title or description matches every query term, best match first
+     */
+    List<Task> search(String query, int limit) {
+        return text.search(query, limit);
+    }
+
+    /**
+     * Pending tasks due strictly before "now", soonest first
+     * @param now Single captured clock reading used for every task
+     */
+    List<Task> overdue(LocalDateTime now) {
+        // Due keys are (second, nano-of-second, id), so this head map is exactly "due before now"
+        return new ArrayList<>(pendingByDue.headMap(
+                new IndexKey(toEpochSecond(now), now.getNano(), Integer.MIN_VALUE), false).values());
+    }
+
+    /**
+     * Pending tasks due in [fromSecond, toSecond), soonest first
+     */
+    List<Task> pendingDueBetween(long fromSecond, long toSecond) {
+        return new ArrayList<>(pendingByDue.subMap(
+                new IndexKey(fromSecond, 0, Integer.MIN_VALUE), true,
+                new IndexKey(toSecond, 0, Integer.MIN_VALUE), false).values());
+    }
+
+    /**
+     * One page of tasks in the requested order, starting after the cursor
+     * @param cursor Opaque position returned as nextCursor by the previous page, or null
+     */
+    TaskManager.TaskPage page(TaskManager.SortOrder sort, boolean descending, String cursor, int limit) {
+        List<Task> tasks = new ArrayList<>(Math.min(limit, 256));
+        String nextCursor = null;
+
+        if (sort == TaskManager.SortOrder.CREATED) {
+            NavigableMap<Integer, Task> view = descending ? byId.descendingMap() : byId;
+            if (cursor != null) {
+                view = view.tailMap(parseCursor(cursor).id, false);
+            }
+            for (Map.Entry<Integer, Task> entry : view.entrySet()) {
+                if (tasks.size() == limit) {
+                    nextCursor = formatCursor(new IndexKey(0, 0, tasks.get(limit - 1).getId()));
+                    break;
+                }
+                tasks.add(entry.getValue());
+            }
+        } else {
+            ConcurrentSkipListMap<IndexKey, Task> index = sort == TaskManager.SortOrder.PRIORITY ? byPriority : byDueDate;
+            NavigableMap<IndexKey, Task> view = descending ? index.descendingMap() : index;
+            if (cursor != null) {
+                view = view.tailMap(parseCursor(cursor), false);
+            }
+            IndexKey last = null;
+            for (Map.Entry<IndexKey, Task> entry : view.entrySet()) {
+                if (tasks.size() == limit) {
+                    nextCursor = formatCursor(last);
+                    break;
+                }
+                tasks.add(entry.getValue());
+                last = entry.getKey();
+            }
+        }
+        return new TaskManager.TaskPage(tasks, nextCursor);
+    }
+
+    // Pending-task bookkeeping
+
+    private void addPending(Task task) {
+        IndexKey key = dueKey(task);
+        pendingByDue.put(key, task);
+        if (key.major < overdueHorizon) {
+            overdueCount++;
+        }
+        if (key.major != Long.MAX_VALUE) {
+            pendingByDay.merge(Math.floorDiv(key.major, SECONDS_PER_DAY), 1, Integer::sum);
+        }
+    }
+
+    private void removePending(Task task) {
+        IndexKey key = dueKey(task);
+        if (pendingByDue.remove(key) == null) {
+            return;
+        }
+        if (key.major < overdueHorizon) {
+            overdueCount--;
+        }
+        if (key.major != Long.MAX_VALUE) {
+            pendingByDay.computeIfPresent(Math.floorDiv(key.major, SECONDS_PER_DAY),
+                    (day, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Move the overdue horizon to "now", counting only tasks whose due date it crosses
+     */
+    private void advanceOverdueHorizon(long now) {
+        if (now > overdueHorizon) {
+            overdueCount += pendingByDue.subMap(
+                    new IndexKey(overdueHorizon, 0, Integer.MIN_VALUE), true,
+                    new IndexKey(now, 0, Integer.MIN_VALUE), false).size();
+        } else if (now < overdueHorizon) {
+            // Clock moved backwards
+            overdueCount -= pendingByDue.subMap(
+                    new IndexKey(now, 0, Integer.MIN_VALUE), true,
+                    new IndexKey(overdueHorizon, 0, Integer.MIN_VALUE), false).size();
+        }
+        overdueHorizon = now;
+    }
+
+    // Keys
+
+    static long toEpochSecond(LocalDateTime dateTime) {
+        // Local date-times are compared as-is; UTC is just a fixed, monotonic mapping
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+    }
+
+    private static IndexKey dueKey(Task task) {
+        return new IndexKey(dueSecond(task), task.dueNano(), task.getId());
+    }
+
+    /**
+     * Due date as the key's epoch second, reading Task's stored value without a LocalDateTime
+     */
+    private static long dueSecond(Task task) {
+        long due = task.dueEpochSecond();
+        return due != Task.NO_TIME ? due : Long.MAX_VALUE;
+    }
+
+    /**
+     * High priority first, then soonest due
+     */
+    private static IndexKey priorityKey(Task task) {
+        Task.Priority priority = task.getPriority() != null ? task.getPriority() : Task.Priority.MEDIUM;
+        return new IndexKey(priority.ordinal(), dueSecond(task), task.getId());
+    }
+
+    private static String formatCursor(IndexKey key) {
+        return key.major + "_" + key.minor + "_" + key.id;
+    }
+
+    private static IndexKey parseCursor(String cursor) {
+        String[] parts = cursor.split("_");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new IndexKey(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Immutable (major, minor, id) sort key; id breaks ties so every key is unique
+     */
+    static final class IndexKey implements Comparable<IndexKey> {
+        final long major;
+        final long minor;
+        final int id;
+
+        IndexKey(long major, long minor, int id) {
+            this.major = major;
+            this.minor = minor;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(IndexKey other) {
+            int result = Long.compare(major, other.major);
+            if (result == 0) {
+                result = Long.compare(minor, other.minor);
+            }
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof IndexKey)) return false;
+            IndexKey key = (IndexKey) obj;
+            return major == key.major && minor == key.minor && id == key.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(major) * 31 * 31 + Long.hashCode(minor) * 31 + id;
+        }
+    }
+}
@@ -1,22 +1,45 @@
 package models;
 
+import utils.JsonWriter;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Task - Represents a task in the system
  * Demonstrates OOP principles: Encapsulation, Enums
+ *
+ * Stored compactly, since there may be millions: date-times are an epoch-second long
+ * plus an int of nanoseconds (full LocalDateTime precision), priority is a byte, and categories and emails (a handful of values shared by many
+ * tasks) go through a small bounded table so tasks share one instance of each common
+ * value. The LocalDateTime and Priority getters are views built on demand.
+ *
+ * Fields are plain, so a task must not be modified once TaskManager has published it;
+ * TaskManager changes tasks by replacing them with an updated copy.
  */
 public class Task {
+    // Sentinel for a null date-time
+    static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte NO_PRIORITY = -1;
+    private static final Priority[] PRIORITIES = Priority.values();
+    // Shared instances of categories and student emails: a fixed-size, 4-way set-associative
+    // table, so an endless stream of distinct values can only evict entries, never grow it
+    private static final String[] SHARED_STRINGS =
+            new String[Integer.highestOneBit(Math.max(Integer.getInteger("smarttask.task.sharedStrings", 16384), 4))];
+
     private int id;
     private String title;
     private String description;
     private String category;
-    private Priority priority;
-    private LocalDateTime dueDate;
+    private byte priority = NO_PRIORITY;
+    // Local date-times as epoch seconds at UTC offset, plus the nano-of-second
+    private long dueDate = NO_TIME;
+    private long createdAt;
+    private long completedAt = NO_TIME;
+    private int dueNanos;
+    private int createdNanos;
+    private int completedNanos;
     private boolean completed;
-    private LocalDateTime createdAt;
-    private LocalDateTime completedAt;
     private String studentEmail;
 
     public enum Priority {
@@ -45,7 +68,9 @@ public class Task {
     }
 
     public Task() {
-        this.createdAt = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = toEpochSecond(now);
+        this.createdNanos = now.getNano();
         this.completed = false;
     }
 
@@ -54,10 +79,11 @@ public class Task {
         this();
         this.title = title;
         this.description = description;
-        this.category = category;
-        this.priority = priority;
-        this.dueDate = dueDate;
-        this.studentEmail = studentEmail;
+        this.category = share(category);
+        this.priority = toOrdinal(priority);
+        this.dueDate = toEpochSecond(dueDate);
+        this.dueNanos = toNanos(dueDate);
+        this.studentEmail = share(studentEmail);
     }
 
     public Task(int id, String title, String description, String category,
@@ -66,6 +92,47 @@ public class Task {
         this.id = id;
     }
 
+    /**
+     * Task from stored field values, as decoded from a snapshot; reads no clock.
+     * Date-times are epoch seconds (NO_TIME for null) and nano-of-second, as stored.
+     */
+    Task(int id, String title, String description, String category, Priority priority,
+         long dueDate, int dueNanos, boolean completed, long createdAt, int createdNanos,
+         long completedAt, int completedNanos, String studentEmail) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.category = share(category);
+        this.priority = toOrdinal(priority);
+        this.dueDate = dueDate;
+        this.dueNanos = dueNanos;
+        this.completed = completed;
+        this.createdAt = createdAt;
+        this.createdNanos = createdNanos;
+        this.completedAt = completedAt;
+        this.completedNanos = completedNanos;
+        this.studentEmail = share(studentEmail);
+    }
+
+    /**
+     * Field-for-field copy, the next version of a task in a copy-on-write update
+     */
+    Task(Task other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.category = other.category;
+        this.priority = other.priority;
+        this.dueDate = other.dueDate;
+        this.createdAt = other.createdAt;
+        this.completedAt = other.completedAt;
+        this.dueNanos = other.dueNanos;
+        this.createdNanos = other.createdNanos;
+        this.completedNanos = other.completedNanos;
+        this.completed = other.completed;
+        this.studentEmail = other.studentEmail;
+    }
+
     // Getters and Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -77,33 +144,53 @@ public class Task {
     public void setDescription(String description) { this.description = description; }
 
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) { this.category = share(category); }
+
+    public Priority getPriority() { return priority != NO_PRIORITY ? PRIORITIES[priority] : null; }
+    public void setPriority(Priority priority) { this.priority = toOrdinal(priority); }
 
-    public Priority getPriority() { return priority; }
-    public void setPriority(Priority priority) { this.priority = priority; }
+    public LocalDateTime getDueDate() { return toDateTime(dueDate, dueNanos); }
 
-    public LocalDateTime getDueDate() { return dueDate; }
-    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = toEpochSecond(dueDate);
+        this.dueNanos = toNanos(dueDate);
+    }
 
     public boolean isCompleted() { return completed; }
 
     public void setCompleted(boolean completed) {
         this.completed = completed;
-        if (completed && this.completedAt == null) {
-            this.completedAt = LocalDateTime.now();
+        if (completed && this.completedAt == NO_TIME) {
+            setCompletedAt(LocalDateTime.now());
         } else if (!completed) {
-            this.completedAt = null;
+            setCompletedAt(null);
         }
     }
 
-    public LocalDateTime getCreatedAt() { return createdAt; }
-    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getCreatedAt() { return toDateTime(createdAt, createdNanos); }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = toEpochSecond(createdAt);
+        this.createdNanos = toNanos(createdAt);
+    }
+
+    public LocalDateTime getCompletedAt() { return toDateTime(completedAt, completedNanos); }
 
-    public LocalDateTime getCompletedAt() { return completedAt; }
-    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = toEpochSecond(completedAt);
+        this.completedNanos = toNanos(completedAt);
+    }
 
     public String getStudentEmail() { return studentEmail; }
-    public void setStudentEmail(String studentEmail) { this.studentEmail = studentEmail; }
+    public void setStudentEmail(String studentEmail) { this.studentEmail = share(studentEmail); }
+
+    // Raw access for indexes and the binary snapshot: epoch seconds (NO_TIME for null), nano-of-second
+    long dueEpochSecond() { return dueDate; }
+    long createdEpochSecond() { return createdAt; }
+    long completedEpochSecond() { return completedAt; }
+    int dueNano() { return dueNanos; }
+    int createdNano() { return createdNanos; }
+    int completedNano() { return completedNanos; }
 
     // Business Logic
     public void markCompleted() {
@@ -115,44 +202,88 @@ public class Task {
     }
 
     public boolean isOverdue() {
-        return !completed && dueDate != null && dueDate.isBefore(LocalDateTime.now());
+        return !completed && dueDate != NO_TIME && getDueDate().isBefore(LocalDateTime.now());
     }
 
     public boolean isDueToday() {
-        if (dueDate == null) return false;
-        return dueDate.toLocalDate().isEqual(LocalDateTime.now().toLocalDate());
+        if (dueDate == NO_TIME) return false;
+        return getDueDate().toLocalDate().isEqual(LocalDateTime.now().toLocalDate());
     }
 
     public long getDaysUntilDue() {
-        if (dueDate == null) return 0;
-        return java.time.Duration.between(LocalDateTime.now(), dueDate).toDays();
+        if (dueDate == NO_TIME) return 0;
+        return java.time.Duration.between(LocalDateTime.now(), getDueDate()).toDays();
+    }
+
+    private static byte toOrdinal(Priority priority) {
+        return priority != null ? (byte) priority.ordinal() : NO_PRIORITY;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    }
+
+    private static int toNanos(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.getNano() : 0;
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond, int nanos) {
+        return epochSecond != NO_TIME ? LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * The shared instance of a frequently repeated string (category, email).
+     * Unsynchronized on purpose: Strings are safely published, and a racing update only
+     * costs a missed share.
+     */
+    private static String share(String value) {
+        if (value == null) return null;
+        int h = value.hashCode();
+        int set = (h ^ (h >>> 16)) & (SHARED_STRINGS.length - 4);
+        for (int i = set; i < set + 4; i++) {
+            String shared = SHARED_STRINGS[i];
+            if (shared == null) {
+                SHARED_STRINGS[i] = value;
+                return value;
+            }
+            if (value.equals(shared)) {
+                return shared;
+            }
+        }
+        SHARED_STRINGS[set + ThreadLocalRandom.current().nextInt(4)] = value;
+        return value;
     }
 
     // JSON conversion
     public String toJson() {
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-        return String.format(
-                "{\"id\":%d,\"title\":\"%s\",\"description\":\"%s\"," +
-                        "\"category\":\"%s\",\"priority\":\"%s\",\"dueDate\":\"%s\"," +
-                        "\"completed\":%b,\"createdAt\":\"%s\",\"completedAt\":%s," +
-                        "\"studentEmail\":\"%s\"}",
-                id, escapeJson(title), escapeJson(description),
-                escapeJson(category), priority.getValue(),
-                dueDate.format(formatter), completed, createdAt.format(formatter),
-                completedAt != null ? "\"" + completedAt.format(formatter) + "\"" : "null",
-                escapeJson(studentEmail)
-        );
+        try (JsonWriter json = JsonWriter.acquire()) {
+            writeJson(json);
+            return json.toString();
+        }
     }
 
-    private String escapeJson(String value) {
-        if (value == null) return "";
-        return value.replace("\"", "\\\"").replace("\n", "\\n");
+    /**
+     * Encode this task as a JSON object into an existing writer
+     */
+    public void writeJson(JsonWriter json) {
+        json.beginObject()
+                .name("id").value(id)
+                .name("title").value(title != null ? title : "")
+                .name("description").value(description != null ? description : "")
+                .name("category").value(category != null ? category : "")
+                .name("priority").value(getPriority().getValue())
+                .name("dueDate").value(getDueDate())
+                .name("completed").value(completed)
+                .name("createdAt").value(getCreatedAt())
+                .name("completedAt").value(getCompletedAt())
+                .name("studentEmail").value(studentEmail != null ? studentEmail : "")
+                .endObject();
     }
 
     @Override
     public String toString() {
         return String.format("Task{id=%d, title='%s', category='%s', priority=%s, dueDate=%s, completed=%b}",
-                id, title, category, priority, dueDate, completed);
+                id, title, category, getPriority(), getDueDate(), completed);
     }
 
     @Override
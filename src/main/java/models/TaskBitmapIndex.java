@@ -0,0 +1,296 @@
+package models;
+
+import utils.IntHashMap;
+import utils.JsonWriter;
+import utils.RoaringBitmap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * TaskBitmapIndex - Bitmap index over task categories, priorities and completion
+ * Every task gets a dense ordinal (reused after deletes), and each indexed value keeps a
+ * RoaringBitmap of the ordinals that have it: one per category (case-insensitive), one per
+ * priority, one per student, plus completed and live sets. A TaskQuery evaluates to AND /
+ * OR / AND-NOT of these bitmaps, starting from the student's own bitmap, so combined
+ * filters ("high priority, pending, Exams") cost a few bitmap operations no larger than
+ * that student's tasks instead of a scan per predicate, and only matching ordinals are
+ * turned back into tasks.
+ *
+ * Kept in sync as a TaskListener; optional, enabled by WebAPIBridge unless
+ * smarttask.query.enabled=false.
+ */
+public class TaskBitmapIndex implements TaskListener {
+    private static final Task.Priority[] PRIORITIES = Task.Priority.values();
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final TaskManager taskManager;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Ordinal slots; guarded by lock
+    private Entry[] entries = new Entry[1024];
+    private int ordinalLimit;                             // ordinals ever used
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private final IntHashMap<Integer> ordinalById = new IntHashMap<>();
+
+    // Bitmaps of ordinals; guarded by lock
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap completed = new RoaringBitmap();
+    private final RoaringBitmap[] byPriority = new RoaringBitmap[PRIORITIES.length];
+    private final Map<String, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<String, RoaringBitmap> byStudent = new HashMap<>();
+
+    public TaskBitmapIndex(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        for (int i = 0; i < byPriority.length; i++) {
+            byPriority[i] = new RoaringBitmap();
+        }
+    }
+
+    /**
+     * Start following task changes and index the existing tasks
+     */
+    public void start() {
+        taskManager.addTaskListener(this);
+        List<Task> all = taskManager.getAllTasks();
+        lock.writeLock().lock();
+        try {
+            for (Task task : all) {
+                // Skip tasks deleted since the snapshot; their delete may already have been applied
+                if (taskManager.getTaskById(task.getId()) == task) {
+                    upsert(task);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void stop() {
+        taskManager.removeTaskListener(this);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tasks matching a query, lowest id first
+     * @param studentEmail Student whose tasks to search, or null for everyone
+     * @param limit Maximum tasks to return; the total still counts every match
+     */
+    public Result query(String studentEmail, TaskQuery query, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap scope = studentEmail != null ? student(studentEmail) : live;
+            RoaringBitmap matches = query.evaluate(this, scope);
+
+            // Ordinals aren't in id order: keep the lowest ids in a max-heap bounded by limit
+            PriorityQueue<Task> lowest = new PriorityQueue<>(Math.max(1, limit),
+                    (a, b) -> Integer.compare(b.getId(), a.getId()));
+            matches.forEach(ordinal -> {
+                Task task = entries[ordinal].task;
+                if (lowest.size() < limit) {
+                    lowest.add(task);
+                } else if (limit > 0 && task.getId() < lowest.peek().getId()) {
+                    lowest.poll();
+                    lowest.add(task);
+                }
+            });
+            List<Task> tasks = new ArrayList<>(lowest);
+            tasks.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+            return new Result(tasks, matches.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bitmaps read by TaskQuery.evaluate(); the caller holds the read lock and must not modify them
+
+    RoaringBitmap completed() {
+        return completed;
+    }
+
+    RoaringBitmap priority(Task.Priority priority) {
+        return byPriority[priority.ordinal()];
+    }
+
+    RoaringBitmap category(String category) {
+        return byCategory.getOrDefault(categoryKey(category), EMPTY);
+    }
+
+    private RoaringBitmap student(String studentEmail) {
+        return byStudent.getOrDefault(normalize(studentEmail), EMPTY);
+    }
+
+    // TaskListener
+
+    @Override
+    public void taskAdded(Task task) {
+        lock.writeLock().lock();
+        try {
+            // The task may already be gone if its delete was delivered first
+            if (taskManager.getTaskById(task.getId()) == task) {
+                upsert(task);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        lock.writeLock().lock();
+        try {
+            // Skip a version already replaced by a later update; that update's call indexes it
+            Integer ordinal = ordinalById.get(task.getId());
+            if (ordinal != null && taskManager.getTaskById(task.getId()) == task) {
+                unindex(ordinal);
+                index(ordinal, task);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void taskDeleted(Task task) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalById.remove(task.getId());
+            if (ordinal != null) {
+                unindex(ordinal);
+                live.remove(ordinal);
+                entries[ordinal] = null;
+                if (freeCount == freeOrdinals.length) {
+                    freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+                }
+                freeOrdinals[freeCount++] = ordinal;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ordinals
+
+    private void upsert(Task task) {
+        Integer existing = ordinalById.get(task.getId());
+        if (existing != null) {
+            unindex(existing);
+            index(existing, task);
+            return;
+        }
+        int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : ordinalLimit++;
+        if (ordinal >= entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        ordinalById.put(task.getId(), ordinal);
+        live.add(ordinal);
+        index(ordinal, task);
+    }
+
+    /**
+     * Add an ordinal to the bitmaps for the task's current values, remembering them for unindex()
+     */
+    private void index(int ordinal, Task task) {
+        Task.Priority p = task.getPriority() != null ? task.getPriority() : Task.Priority.MEDIUM;
+        Entry entry = new Entry(task, categoryKey(task.getCategory()), p, task.isCompleted(),
+                normalize(task.getStudentEmail()));
+        entries[ordinal] = entry;
+
+        byPriority[p.ordinal()].add(ordinal);
+        if (entry.completed) {
+            completed.add(ordinal);
+        }
+        if (entry.category != null) {
+            byCategory.computeIfAbsent(entry.category, key -> new RoaringBitmap()).add(ordinal);
+        }
+        byStudent.computeIfAbsent(entry.student, key -> new RoaringBitmap()).add(ordinal);
+    }
+
+    /**
+     * Remove an ordinal from the bitmaps it was last indexed under
+     */
+    private void unindex(int ordinal) {
+        Entry entry = entries[ordinal];
+        byPriority[entry.priority.ordinal()].remove(ordinal);
+        completed.remove(ordinal);
+        if (entry.category != null) {
+            removeFrom(byCategory, entry.category, ordinal);
+        }
+        removeFrom(byStudent, entry.student, ordinal);
+    }
+
+    private static void removeFrom(Map<String, RoaringBitmap> bitmaps, String key, int ordinal) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static String categoryKey(String category) {
+        return category != null ? category.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String normalize(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * A task and the values its ordinal is currently indexed under
+     */
+    private static final class Entry {
+        final Task task;
+        final String category;
+        final Task.Priority priority;
+        final boolean completed;
+        final String student;
+
+        Entry(Task task, String category, Task.Priority priority, boolean completed, String student) {
+            this.task = task;
+            this.category = category;
+            this.priority = priority;
+            this.completed = completed;
+            this.student = student;
+        }
+    }
+
+    /**
+     * One page of query matches and the total number of matches
+     */
+    public static class Result {
+        private final List<Task> tasks;
+        private final int total;
+
+        Result(List<Task> tasks, int total) {
+            this.tasks = tasks;
+            this.total = total;
+        }
+
+        public List<Task> getTasks() { return tasks; }
+        public int getTotal() { return total; }
+
+        public void writeJson(JsonWriter json) {
+            json.beginObject().name("total").value(total).name("tasks").beginArray();
+            for (Task task : tasks) {
+                task.writeJson(json);
+            }
+            json.endArray().endObject();
+        }
+    }
+}
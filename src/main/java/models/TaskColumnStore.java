@@ -0,0 +1,498 @@
+package models;
+
+import utils.IntHashMap;
+import utils.JsonWriter;
+import utils.RoaringBitmap;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * TaskColumnStore - Column-oriented copy of every task, for analytics
+ * Each task occupies one row across primitive column arrays (id, due, created,
+ * completed-at, priority, category id, student id) plus a completed bitmap; a live
+ * bitmap marks rows in use and deleted rows are reused. Categories and students are
+ * dictionary-encoded to dense ints, and each student has a bitmap of their rows, so a
+ * per-student aggregation visits only that student's rows while an all-students one
+ * walks the live bitmap. Aggregations first collect the rows to visit into an int[],
+ * then make single indexed passes over the columns that touch no Task objects. Overdue depends on the clock, so it is derived from the due and
+ * completed columns per query rather than stored.
+ *
+ * Kept in sync as a TaskListener; optional, enabled by WebAPIBridge unless
+ * smarttask.analytics.enabled=false.
+ */
+public class TaskColumnStore implements TaskListener {
+    private static final int INITIAL_ROWS = 1024;
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final Task.Priority[] PRIORITIES = Task.Priority.values();
+    // studentFilter() results besides a dictionary id
+    private static final int ALL_STUDENTS = -1;
+    private static final int NO_STUDENT = -2;
+
+    private final TaskManager taskManager;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns, indexed by row; guarded by lock
+    private int[] ids = new int[INITIAL_ROWS];
+    private long[] due = new long[INITIAL_ROWS];         // whole epoch seconds, Task.NO_TIME for none
+    private long[] created = new long[INITIAL_ROWS];
+    private long[] completedAt = new long[INITIAL_ROWS];
+    private byte[] priority = new byte[INITIAL_ROWS];    // Priority ordinal
+    private int[] category = new int[INITIAL_ROWS];      // index into categories, -1 for none
+    private int[] student = new int[INITIAL_ROWS];       // index into students
+    private long[] completedBits = new long[words(INITIAL_ROWS)];
+    private long[] liveBits = new long[words(INITIAL_ROWS)];
+    private int rowLimit;                                 // rows ever used
+    private int[] freeRows = new int[16];
+    private int freeCount;
+
+    private final IntHashMap<Integer> rowById = new IntHashMap<>();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary students = new Dictionary();
+    // Student dictionary id -> rows owned by that student
+    private final List<RoaringBitmap> rowsByStudent = new ArrayList<>();
+
+    public TaskColumnStore(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    /**
+     * Start following task changes and load the existing tasks
+     */
+    public void start() {
+        taskManager.addTaskListener(this);
+        List<Task> all = taskManager.getAllTasks();
+        lock.writeLock().lock();
+        try {
+            for (Task task : all) {
+                // Skip tasks deleted since the snapshot; their delete may already have been applied
+                if (taskManager.getTaskById(task.getId()) == task) {
+                    upsert(task);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void stop() {
+        taskManager.removeTaskListener(this);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // TaskListener
+
+    @Override
+    public void taskAdded(Task task) {
+        lock.writeLock().lock();
+        try {
+            // The task may already be gone if its delete was delivered first
+            if (taskManager.getTaskById(task.getId()) == task) {
+                upsert(task);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        lock.writeLock().lock();
+        try {
+            // Skip a version already replaced by a later update; that update's call writes it
+            Integer row = rowById.get(task.getId());
+            if (row != null && taskManager.getTaskById(task.getId()) == task) {
+                write(row, task, false);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void taskDeleted(Task task) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(task.getId());
+            if (row != null) {
+                rowsByStudent.get(student[row]).remove(row);
+                liveBits[row >>> 6] &= ~(1L << row);
+                completedBits[row >>> 6] &= ~(1L << row);
+                if (freeCount == freeRows.length) {
+                    freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+                }
+                freeRows[freeCount++] = row;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Aggregations
+
+    /**
+     * Task and completion counts per category
+     * @param studentEmail Student to aggregate, or null for everyone
+     */
+    public List<CategoryCount> countByCategory(String studentEmail) {
+        lock.readLock().lock();
+        try {
+            return countByCategory(rows(studentFilter(studentEmail)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Overdue (pending, due before now) task counts, indexed by Priority ordinal
+     * @param studentEmail Student to aggregate, or null for everyone
+     */
+    public int[] overdueByPriority(String studentEmail, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            return overdueByPriority(rows(studentFilter(studentEmail)), now);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tasks created on each day of [from, to], one count per day
+     * @param studentEmail Student to aggregate, or null for everyone
+     */
+    public int[] createdPerDay(String studentEmail, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return countPerDay(created, rows(studentFilter(studentEmail)), from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tasks completed on each day of [from, to], one count per day
+     * @param studentEmail Student to aggregate, or null for everyone
+     */
+    public int[] completedPerDay(String studentEmail, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return countPerDay(completedAt, rows(studentFilter(studentEmail)), from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totals, categories, overdue by priority and tasks created/completed per day for the
+     * last days, all from one consistent view of the columns
+     * @param studentEmail Student to aggregate, or null for everyone
+     */
+    public Report report(String studentEmail, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate to = now.toLocalDate();
+        LocalDate from = to.minusDays(Math.max(1, days) - 1);
+        lock.readLock().lock();
+        try {
+            int[] rows = rows(studentFilter(studentEmail));
+            return new Report(countByCategory(rows), overdueByPriority(rows, now), from,
+                    countPerDay(created, rows, from, to), countPerDay(completedAt, rows, from, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Aggregation passes over rows from rows(); the caller holds the read lock
+
+    private List<CategoryCount> countByCategory(int[] rows) {
+        // Slot 0 counts tasks without a category; category c is slot c + 1
+        int[] total = new int[categories.size() + 1];
+        int[] completed = new int[categories.size() + 1];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            int slot = category[row] + 1;
+            total[slot]++;
+            completed[slot] += (int) ((completedBits[row >>> 6] >>> row) & 1);
+        }
+
+        List<CategoryCount> result = new ArrayList<>();
+        for (int slot = 0; slot < total.length; slot++) {
+            if (total[slot] > 0) {
+                String name = slot == 0 ? null : categories.name(slot - 1);
+                result.add(new CategoryCount(name, total[slot], completed[slot]));
+            }
+        }
+        result.sort((a, b) -> Integer.compare(b.total, a.total));
+        return result;
+    }
+
+    private int[] overdueByPriority(int[] rows, LocalDateTime now) {
+        // The due column holds whole seconds: one due in the current second is overdue once now is past it
+        long threshold = now.toEpochSecond(ZoneOffset.UTC) + (now.getNano() > 0 ? 1 : 0);
+        int[] counts = new int[PRIORITIES.length];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            long d = due[row];
+            // pending && d < threshold && d != NO_TIME, as a 0/1 count
+            long pending = ~(completedBits[row >>> 6] >>> row) & 1;
+            long isDue = ((d - threshold) >>> 63) & ((d ^ Task.NO_TIME) != 0 ? 1L : 0L);
+            counts[priority[row]] += (int) (pending & isDue);
+        }
+        return counts;
+    }
+
+    private int[] countPerDay(long[] values, int[] rows, LocalDate from, LocalDate to) {
+        long firstDay = from.toEpochDay();
+        int[] counts = new int[(int) Math.max(0, to.toEpochDay() - firstDay + 1)];
+        if (counts.length == 0) {
+            return counts;
+        }
+        for (int i = 0; i < rows.length; i++) {
+            long value = values[rows[i]];
+            if (value != Task.NO_TIME) {
+                long day = Math.floorDiv(value, SECONDS_PER_DAY) - firstDay;
+                if (day >= 0 && day < counts.length) {
+                    counts[(int) day]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * The live rows of one student, or of everyone for ALL_STUDENTS, in ascending order;
+     * none for NO_STUDENT
+     */
+    private int[] rows(int sid) {
+        if (sid == NO_STUDENT) {
+            return new int[0];
+        }
+        if (sid != ALL_STUDENTS) {
+            return rowsByStudent.get(sid).toArray();
+        }
+        int[] rows = new int[rowById.size()];
+        int count = 0;
+        for (int w = 0; w < words(rowLimit); w++) {
+            long live = liveBits[w];
+            while (live != 0) {
+                rows[count++] = (w << 6) | Long.numberOfTrailingZeros(live);
+                live &= live - 1;
+            }
+        }
+        return rows;
+    }
+
+    // Rows
+
+    private void upsert(Task task) {
+        Integer existing = rowById.get(task.getId());
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            row = freeCount > 0 ? freeRows[--freeCount] : rowLimit++;
+            ensureCapacity(rowLimit);
+            rowById.put(task.getId(), row);
+            liveBits[row >>> 6] |= 1L << row;
+        }
+        write(row, task, existing == null);
+    }
+
+    /**
+     * @param fresh true if the row was just allocated and its student column is stale
+     */
+    private void write(int row, Task task, boolean fresh) {
+        ids[row] = task.getId();
+        due[row] = task.dueEpochSecond();
+        created[row] = task.createdEpochSecond();
+        completedAt[row] = task.completedEpochSecond();
+        Task.Priority p = task.getPriority();
+        priority[row] = (byte) (p != null ? p : Task.Priority.MEDIUM).ordinal();
+        category[row] = task.getCategory() != null ? categories.id(task.getCategory()) : -1;
+        int sid = students.id(normalize(task.getStudentEmail()));
+        if (fresh || student[row] != sid) {
+            if (!fresh) {
+                rowsByStudent.get(student[row]).remove(row);
+            }
+            while (rowsByStudent.size() <= sid) {
+                rowsByStudent.add(new RoaringBitmap());
+            }
+            rowsByStudent.get(sid).add(row);
+            student[row] = sid;
+        }
+        if (task.isCompleted()) {
+            completedBits[row >>> 6] |= 1L << row;
+        } else {
+            completedBits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(rows, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        due = Arrays.copyOf(due, capacity);
+        created = Arrays.copyOf(created, capacity);
+        completedAt = Arrays.copyOf(completedAt, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        category = Arrays.copyOf(category, capacity);
+        student = Arrays.copyOf(student, capacity);
+        completedBits = Arrays.copyOf(completedBits, words(capacity));
+        liveBits = Arrays.copyOf(liveBits, words(capacity));
+    }
+
+    /**
+     * Dictionary id to filter on, ALL_STUDENTS for null, NO_STUDENT if the student has no tasks
+     */
+    private int studentFilter(String studentEmail) {
+        if (studentEmail == null) {
+            return ALL_STUDENTS;
+        }
+        int sid = students.find(normalize(studentEmail));
+        return sid >= 0 ? sid : NO_STUDENT;
+    }
+
+    private static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    private static String normalize(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Dense ids for repeated strings; ids are never reused
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        int id(String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = names.size();
+                ids.put(name, id);
+                names.add(name);
+            }
+            return id;
+        }
+
+        int find(String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : -1;
+        }
+
+        String name(int id) {
+            return names.get(id);
+        }
+
+        int size() {
+            return names.size();
+        }
+    }
+
+    /**
+     * Tasks in one category, and how many are completed
+     */
+    public static class CategoryCount {
+        private final String category;
+        private final int total;
+        private final int completed;
+
+        CategoryCount(String category, int total, int completed) {
+            this.category = category;
+            this.total = total;
+            this.completed = completed;
+        }
+
+        public String getCategory() { return category; }
+        public int getTotal() { return total; }
+        public int getCompleted() { return completed; }
+
+        /**
+         * Completed share as a whole percentage
+         */
+        public int getCompletionRate() {
+            return total > 0 ? Math.round(completed * 100f / total) : 0;
+        }
+    }
+
+    /**
+     * Result of report(), as served by /api/analytics
+     */
+    public static class Report {
+        private final List<CategoryCount> categories;
+        private final int[] overdueByPriority;
+        private final LocalDate firstDay;
+        private final int[] createdPerDay;
+        private final int[] completedPerDay;
+
+        Report(List<CategoryCount> categories, int[] overdueByPriority, LocalDate firstDay,
+               int[] createdPerDay, int[] completedPerDay) {
+            this.categories = categories;
+            this.overdueByPriority = overdueByPriority;
+            this.firstDay = firstDay;
+            this.createdPerDay = createdPerDay;
+            this.completedPerDay = completedPerDay;
+        }
+
+        public List<CategoryCount> getCategories() { return categories; }
+
+        public String toJson() {
+            try (JsonWriter json = JsonWriter.acquire()) {
+                writeJson(json);
+                return json.toString();
+            }
+        }
+
+        public void writeJson(JsonWriter json) {
+            int total = 0;
+            int completed = 0;
+            for (CategoryCount count : categories) {
+                total += count.total;
+                completed += count.completed;
+            }
+            json.beginObject()
+                    .name("total").value(total)
+                    .name("completed").value(completed)
+                    .name("categories").beginArray();
+            for (CategoryCount count : categories) {
+                json.beginObject()
+                        .name("category").value(count.category != null ? count.category : "")
+                        .name("total").value(count.total)
+                        .name("completed").value(count.completed)
+                        .name("completionRate").value(count.getCompletionRate())
+                        .endObject();
+            }
+            json.endArray().name("overdueByPriority").beginObject();
+            for (Task.Priority p : PRIORITIES) {
+                json.name(p.getValue()).value(overdueByPriority[p.ordinal()]);
+            }
+            json.endObject().name("days").beginArray();
+            for (int i = 0; i < createdPerDay.length; i++) {
+                json.beginObject()
+                        .name("date").value(firstDay.plusDays(i).toString())
+                        .name("created").value(createdPerDay[i])
+                        .name("completed").value(completedPerDay[i])
+                        .endObject();
+            }
+            json.endArray().endObject();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package models;
+
+/**
+ * TaskListener - Callback for task changes made through TaskManager
+ * Called on the mutating thread after the change is indexed and persisted, outside
+ * any TaskManager lock. Listeners should return quickly and not throw.
+ */
+public interface TaskListener {
+
+    /**
+     * A task was created
+     */
+    default void taskAdded(Task task) {
+    }
+
+    /**
+     * A task was edited, completed or reopened; the task holds its new state
+     */
+    default void taskUpdated(Task task) {
+    }
+
+    /**
+     * A task was deleted
+     */
+    default void taskDeleted(Task task) {
+    }
+}
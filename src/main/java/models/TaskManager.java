@@ -1,25 +1,99 @@
 package models;
 
+import utils.ConcurrentIntHashMap;
 import utils.FileHandler;
+import utils.JournalWriter;
+import utils.JsonWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * TaskManager - Manages all task operations
  * Demonstrates OOP principles: Encapsulation, Single Responsibility
+ *
+ * Thread-safe: mutations lock a stripe chosen by the owning student's email, so
+ * different students rarely contend; queries read the concurrent indexes without locking.
+ * Published tasks are never modified: a change replaces the task with an updated copy, so
+ * a task returned here is a consistent snapshot of one version.
  */
 public class TaskManager {
-    private List<Task> tasks;
-    private int nextId;
+    // Primary index: task id -> task, the store of record for all tasks
+    private final ConcurrentIntHashMap<Task> tasks;
+    // Secondary index: normalized student email -> that student's tasks in several sort orders
+    private final ConcurrentMap<String, StudentTaskIndex> tasksByStudent;
+    private final AtomicInteger nextId;
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] studentLocks;
     private FileHandler fileHandler;
     private static final String TASKS_FILE = "data/tasks.txt";
+    private static final String BINARY_TASKS_FILE = "data/tasks.bin";
+    // Snapshot format written by saves and compaction: "binary" (TaskSnapshot, default) or "text"
+    private static final boolean BINARY_SNAPSHOT =
+            !"text".equalsIgnoreCase(System.getProperty("smarttask.snapshot.format", "binary"));
+
+    // Journaled persistence: mutations append to the journal, compaction folds it into the snapshot
+    private static final String JOURNAL_FILE = "data/tasks.journal";
+    private static final String COMPACTING_JOURNAL_FILE = "data/tasks.journal.compacting";
+    private static final String UPSERT_RECORD = "U|";
+    private static final String DELETE_RECORD = "D|";
+    private static final long COMPACTION_THRESHOLD =
+            Long.getLong("smarttask.journal.compactionThreshold", 10_000);
+
+    private final List<TaskListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final boolean journaled;
+    private JournalWriter journal;
+    private final AtomicBoolean compactionPending = new AtomicBoolean();
+    // Set when a change fails to persist; memory is then ahead of disk, so changes are refused
+    // until a full snapshot of memory has been written (see compact())
+    private final AtomicReference<StorageFailure> storageFailure = new AtomicReference<>();
+    private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public TaskManager() {
-        this.tasks = new ArrayList<>();
+        this(!"snapshot".equalsIgnoreCase(System.getProperty("smarttask.persistence", "journal")));
+    }
+
+    /**
+     * @param journaled true to append each mutation to a journal, false to rewrite
+     *                  the whole task file on every mutation
+     */
+    public TaskManager(boolean journaled) {
+        this.tasks = new ConcurrentIntHashMap<>();
+        this.tasksByStudent = new ConcurrentHashMap<>();
+        this.studentLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            studentLocks[i] = new ReentrantLock();
+        }
         this.fileHandler = new FileHandler();
-        this.nextId = 1;
+        this.nextId = new AtomicInteger(1);
+        this.journaled = journaled;
         loadTasks();
+        if (journaled) {
+            openJournal();
+        }
     }
 
     /**
@@ -37,20 +111,47 @@ public class TaskManager {
             throw new IllegalArgumentException("Due date cannot be null");
         }
 
-        Task task = new Task(nextId++, title, description, category, priority, dueDate, studentEmail);
-        tasks.add(task);
-        saveTasks();
+        checkWritable();
+        Task task = new Task(nextId.getAndIncrement(), title, description, category, priority, dueDate, studentEmail);
+        CompletableFuture<Void> commit;
+        ReentrantLock lock = lockFor(studentEmail);
+        lock.lock();
+        try {
+            indexTask(task);
+            commit = persistTask(task);
+        } finally {
+            lock.unlock();
+        }
+        awaitCommit(commit);
+        for (TaskListener listener : listeners) {
+            listener.taskAdded(task);
+        }
         return task;
     }
 
+    /**
+     * Register a listener for task changes made after this call
+     */
+    public void addTaskListener(TaskListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeTaskListener(TaskListener listener) {
+        listeners.remove(listener);
+    }
+
     /**
      * Get task by ID
      */
     public Task getTaskById(int id) {
-        return tasks.stream()
-                .filter(task -> task.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return tasks.get(id);
+    }
+
+    /**
+     * Get every student's tasks, ordered by id
+     */
+    public List<Task> getAllTasks() {
+        return allTasks();
     }
 
     /**
@@ -59,18 +160,33 @@ public class TaskManager {
     public List<Task> getTasksByStudent(String studentEmail) {
         if (studentEmail == null) return Collections.emptyList();
 
-        return tasks.stream()
-                .filter(task -> task.getStudentEmail().equalsIgnoreCase(studentEmail))
+        return studentTaskStream(studentEmail)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Lazily stream a student's tasks in creation order without copying them into a list
+     */
+    public Stream<Task> streamTasksByStudent(String studentEmail) {
+        if (studentEmail == null) return Stream.empty();
+
+        return studentTaskStream(studentEmail);
+    }
+
     /**
      * Update an existing task
      */
     public boolean updateTask(int id, String title, String description, String category,
                               Task.Priority priority, LocalDateTime dueDate) {
-        Task task = getTaskById(id);
-        if (task != null) {
+        return mutateTask(id, updateChange(title, description, category, priority, dueDate));
+    }
+
+    /**
+     * The edit applied by updateTask to the task's new copy; null (or blank title) leaves a field unchanged
+     */
+    private static Consumer<Task> updateChange(String title, String description, String category,
+                                               Task.Priority priority, LocalDateTime dueDate) {
+        return task -> {
             if (title != null && !title.trim().isEmpty()) {
                 task.setTitle(title);
             }
@@ -86,62 +202,228 @@ public class TaskManager {
             if (dueDate != null) {
                 task.setDueDate(dueDate);
             }
-            saveTasks();
-            return true;
-        }
-        return false;
+        };
     }
 
     /**
      * Delete a task
      */
     public boolean deleteTask(int id) {
+        checkWritable();
         Task task = getTaskById(id);
-        if (task != null) {
-            tasks.remove(task);
-            saveTasks();
-            return true;
+        if (task == null) {
+            return false;
+        }
+
+        CompletableFuture<Void> commit;
+        ReentrantLock lock = lockFor(task.getStudentEmail());
+        lock.lock();
+        try {
+            // Re-read under the lock: the task may have been replaced or deleted meanwhile
+            task = tasks.get(id);
+            if (task == null || !unindexTask(task)) {
+                return false; // deleted concurrently
+            }
+            commit = persistDelete(id);
+        } finally {
+            lock.unlock();
+        }
+        awaitCommit(commit);
+        for (TaskListener listener : listeners) {
+            listener.taskDeleted(task);
         }
-        return false;
+        return true;
     }
 
     /**
      * Mark task as completed
      */
     public boolean completeTask(int id) {
-        Task task = getTaskById(id);
-        if (task != null) {
-            task.markCompleted();
-            saveTasks();
-            return true;
-        }
-        return false;
+        return mutateTask(id, Task::markCompleted);
     }
 
     /**
      * Mark task as pending
      */
     public boolean markTaskPending(int id) {
-        Task task = getTaskById(id);
-        if (task != null) {
-            task.markPending();
-            saveTasks();
-            return true;
-        }
-        return false;
+        return mutateTask(id, Task::markPending);
     }
 
     /**
      * Toggle task completion status
      */
     public boolean toggleTaskCompletion(int id) {
+        return mutateTask(id, task -> task.setCompleted(!task.isCompleted()));
+    }
+
+    /**
+     * Apply a change to one task under its student's lock, then wait for it to be persisted
+     * @return false if no task has that id
+     */
+    private boolean mutateTask(int id, Consumer<Task> change) {
+        checkWritable();
         Task task = getTaskById(id);
-        if (task != null) {
-            task.setCompleted(!task.isCompleted());
-            saveTasks();
-            return true;
+        if (task == null) {
+            return false;
+        }
+
+        CompletableFuture<Void> commit;
+        ReentrantLock lock = lockFor(task.getStudentEmail());
+        lock.lock();
+        try {
+            // Re-read under the lock: another change may have replaced the task meanwhile
+            task = tasks.get(id);
+            if (task == null) {
+                return false; // deleted concurrently
+            }
+            task = replaceTask(task, change);
+            commit = persistTask(task);
+        } finally {
+            lock.unlock();
+        }
+        awaitCommit(commit);
+        for (TaskListener listener : listeners) {
+            listener.taskUpdated(task);
+        }
+        return true;
+    }
+
+    /**
+     * Replace a task with an updated copy in the primary and per-student indexes.
+     * Caller holds the task's student lock.
+     * @return the new version
+     */
+    private Task replaceTask(Task task, Consumer<Task> change) {
+        Task updated = studentIndex(task.getStudentEmail()).update(task, change);
+        tasks.put(updated.getId(), updated);
+        return updated;
+    }
+
+    // Batch Operations
+
+    /**
+     * Apply several operations atomically. Every operation is validated while holding the
+     * locks of all students involved; then either all are applied and persisted with a
+     * single journal commit, or (if any is invalid) none are.
+     * @return one result per operation, in order
+     */
+    public List<BatchResult> applyBatch(List<BatchOperation> operations) {
+        checkWritable();
+        int count = operations.size();
+
+        // Resolve targets and the stripes to lock before locking anything
+        Task[] targets = new Task[count];
+        boolean[] stripes = new boolean[LOCK_STRIPES];
+        for (int i = 0; i < count; i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation.getType() == BatchOperation.Type.ADD) {
+                stripes[stripeFor(operation.getStudentEmail())] = true;
+            } else {
+                targets[i] = getTaskById(operation.getTaskId());
+                if (targets[i] != null) {
+                    stripes[stripeFor(targets[i].getStudentEmail())] = true;
+                }
+            }
+        }
+
+        List<BatchResult> results = new ArrayList<>(count);
+        CompletableFuture<Void> commit;
+        lockStripes(stripes);
+        try {
+            // Validate everything first so a failure never leaves half a batch applied
+            Set<Integer> deleted = new HashSet<>();
+            boolean valid = true;
+            for (int i = 0; i < count; i++) {
+                BatchOperation operation = operations.get(i);
+                String error = validate(operation, targets[i], deleted);
+                results.add(error != null ? BatchResult.failed(operation, error) : null);
+                valid &= error == null;
+            }
+            if (!valid) {
+                for (int i = 0; i < count; i++) {
+                    if (results.get(i) == null) {
+                        results.set(i, BatchResult.failed(operations.get(i),
+                                "Not applied: another operation in the batch failed"));
+                    }
+                }
+                return results;
+            }
+
+            List<String> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                BatchOperation operation = operations.get(i);
+                // The current version: an earlier operation in the batch may have replaced it
+                Task task = operation.getType() != BatchOperation.Type.ADD ? tasks.get(operation.getTaskId()) : null;
+                switch (operation.getType()) {
+                    case ADD:
+                        task = new Task(nextId.getAndIncrement(), operation.getTitle(), operation.getDescription(),
+                                operation.getCategory(), operation.getPriority(), operation.getDueDate(),
+                                operation.getStudentEmail());
+                        indexTask(task);
+                        records.add(UPSERT_RECORD + taskToString(task));
+                        break;
+                    case UPDATE:
+                        task = replaceTask(task, updateChange(operation.getTitle(),
+                                operation.getDescription(), operation.getCategory(),
+                                operation.getPriority(), operation.getDueDate()));
+                        records.add(UPSERT_RECORD + taskToString(task));
+                        break;
+                    case COMPLETE:
+                        task = replaceTask(task, Task::markCompleted);
+                        records.add(UPSERT_RECORD + taskToString(task));
+                        break;
+                    case DELETE:
+                        unindexTask(task);
+                        records.add(DELETE_RECORD + task.getId());
+                        break;
+                }
+                results.set(i, BatchResult.applied(operation, task));
+            }
+            commit = persistBatch(records);
+        } finally {
+            unlockStripes(stripes);
         }
-        return false;
+        awaitCommit(commit);
+
+        for (BatchResult result : results) {
+            for (TaskListener listener : listeners) {
+                switch (result.getType()) {
+                    case ADD: listener.taskAdded(result.getTask()); break;
+                    case DELETE: listener.taskDeleted(result.getTask()); break;
+                    default: listener.taskUpdated(result.getTask());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Check one batch operation against the current state. Caller holds the involved locks.
+     * @param deleted Ids deleted by earlier operations in the batch (updated here)
+     * @return error message, or null if the operation can be applied
+     */
+    private String validate(BatchOperation operation, Task target, Set<Integer> deleted) {
+        if (operation.getType() == BatchOperation.Type.ADD) {
+            if (operation.getTitle() == null || operation.getTitle().trim().isEmpty()) {
+                return "Task title cannot be empty";
+            }
+            if (operation.getStudentEmail() == null || operation.getStudentEmail().trim().isEmpty()) {
+                return "Student email cannot be empty";
+            }
+            if (operation.getDueDate() == null) {
+                return "Due date cannot be null";
+            }
+            return null;
+        }
+
+        // Re-checked under the lock: the task may have been deleted since it was looked up
+        if (target == null || getTaskById(target.getId()) == null || deleted.contains(target.getId())) {
+            return "Task not found";
+        }
+        if (operation.getType() == BatchOperation.Type.DELETE) {
+            deleted.add(target.getId());
+        }
+        return null;
     }
 
     // Filtering Methods
@@ -152,8 +434,7 @@ public class TaskManager {
     public List<Task> getTasksByCategory(String studentEmail, String category) {
         if (studentEmail == null || category == null) return Collections.emptyList();
 
-        return tasks.stream()
-                .filter(task -> task.getStudentEmail().equalsIgnoreCase(studentEmail))
+        return studentTaskStream(studentEmail)
                 .filter(task -> task.getCategory().equalsIgnoreCase(category))
                 .collect(Collectors.toList());
     }
@@ -164,8 +445,7 @@ public class TaskManager {
     public List<Task> getTasksByPriority(String studentEmail, Task.Priority priority) {
         if (studentEmail == null || priority == null) return Collections.emptyList();
 
-        return tasks.stream()
-                .filter(task -> task.getStudentEmail().equalsIgnoreCase(studentEmail))
+        return studentTaskStream(studentEmail)
                 .filter(task -> task.getPriority() == priority)
                 .collect(Collectors.toList());
     }
@@ -176,8 +456,7 @@ public class TaskManager {
     public List<Task> getCompletedTasks(String studentEmail) {
         if (studentEmail == null) return Collections.emptyList();
 
-        return tasks.stream()
-                .filter(task -> task.getStudentEmail().equalsIgnoreCase(studentEmail))
+        return studentTaskStream(studentEmail)
                 .filter(Task::isCompleted)
                 .collect(Collectors.toList());
     }
@@ -188,87 +467,89 @@ public class TaskManager {
     public List<Task> getPendingTasks(String studentEmail) {
         if (studentEmail == null) return Collections.emptyList();
 
-        return tasks.stream()
-                .filter(task -> task.getStudentEmail().equalsIgnoreCase(studentEmail))
+        return studentTaskStream(studentEmail)
                 .filter(task -> !task.isCompleted())
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get overdue tasks
+     * Get overdue tasks, soonest due first.
+     * A range query on the student's pending-by-due index, evaluated against one captured "now".
      */
     public List<Task> getOverdueTasks(String studentEmail) {
-        if (studentEmail == null) return Collections.emptyList();
+        StudentTaskIndex owned = studentIndex(studentEmail);
+        if (owned == null) return Collections.emptyList();
 
-        return tasks.stream()
-                .filter(task -> task.getStudentEmail().equalsIgnoreCase(studentEmail))
-                .filter(Task::isOverdue)
-                .collect(Collectors.toList());
+        return owned.overdue(LocalDateTime.now());
     }
 
     /**
-     * Get tasks due today
+     * Get pending tasks due today, soonest due first
      */
     public List<Task> getTasksDueToday(String studentEmail) {
-        if (studentEmail == null) return Collections.emptyList();
+        StudentTaskIndex owned = studentIndex(studentEmail);
+        if (owned == null) return Collections.emptyList();
 
-        return tasks.stream()
-                .filter(task -> task.getStudentEmail().equalsIgnoreCase(studentEmail))
-                .filter(Task::isDueToday)
-                .filter(task -> !task.isCompleted())
-                .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        return owned.pendingDueBetween(
+                StudentTaskIndex.toEpochSecond(today.atStartOfDay()),
+                StudentTaskIndex.toEpochSecond(today.plusDays(1).atStartOfDay()));
     }
 
     /**
-     * Search tasks by title
+     * Search tasks by title: every task whose title contains the term (case-insensitive),
+     * in creation order. Ranked, limited search over titles and descriptions is searchTasks.
      */
     public List<Task> searchTasksByTitle(String studentEmail, String searchTerm) {
         if (studentEmail == null || searchTerm == null) return Collections.emptyList();
 
         String lowerSearchTerm = searchTerm.toLowerCase();
-        return tasks.stream()
-                .filter(task -> task.getStudentEmail().equalsIgnoreCase(studentEmail))
-                .filter(task -> task.getTitle().toLowerCase().contains(lowerSearchTerm))
+        return studentTaskStream(studentEmail)
+                .filter(task -> task.getTitle() != null && task.getTitle().toLowerCase().contains(lowerSearchTerm))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get task statistics
+     * Search tasks through the student's inverted index.
+     * Each query word must match a whole word, a word prefix, or (3+ characters) part of
+     * a word in the title or description; title and whole-word matches rank higher.
+     * @param limit Maximum number of results
+     */
+    public List<Task> searchTasks(String studentEmail, String query, int limit) {
+        if (query == null) return Collections.emptyList();
+
+        StudentTaskIndex owned = studentIndex(studentEmail);
+        return owned != null ? owned.search(query, limit) : Collections.emptyList();
+    }
+
+    /**
+     * Get task statistics.
+     * Served from counters maintained on every mutation instead of scanning the tasks.
      */
     public TaskStats getTaskStats(String studentEmail) {
-        if (studentEmail == null) {
+        StudentTaskIndex owned = studentIndex(studentEmail);
+        if (owned == null) {
             return new TaskStats(0, 0, 0, 0, 0);
         }
 
-        List<Task> studentTasks = getTasksByStudent(studentEmail);
-
-        int total = studentTasks.size();
-        int completed = (int) studentTasks.stream().filter(Task::isCompleted).count();
-        int pending = total - completed;
-        int overdue = (int) studentTasks.stream().filter(Task::isOverdue).count();
-        int dueToday = (int) studentTasks.stream()
-                .filter(Task::isDueToday)
-                .filter(task -> !task.isCompleted())
-                .count();
-
-        return new TaskStats(total, completed, pending, overdue, dueToday);
+        long now = StudentTaskIndex.toEpochSecond(LocalDateTime.now());
+        ReentrantLock lock = lockFor(studentEmail);
+        lock.lock();
+        try {
+            return owned.stats(now);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Get tasks sorted by due date
+     * Get tasks sorted by due date (a plain walk of the due-date index, no per-call sort)
      */
     public List<Task> getTasksSortedByDueDate(String studentEmail, boolean ascending) {
-        List<Task> studentTasks = getTasksByStudent(studentEmail);
+        StudentTaskIndex owned = studentIndex(studentEmail);
+        if (owned == null) return Collections.emptyList();
 
-        if (ascending) {
-            return studentTasks.stream()
-                    .sorted(Comparator.comparing(Task::getDueDate))
-                    .collect(Collectors.toList());
-        } else {
-            return studentTasks.stream()
-                    .sorted(Comparator.comparing(Task::getDueDate).reversed())
-                    .collect(Collectors.toList());
-        }
+        return new ArrayList<>(owned.byDueDate(ascending));
     }
 
     /**
@@ -288,38 +569,411 @@ public class TaskManager {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get one page of a student's tasks from a pre-sorted index
+     * @param sort Index to page through
+     * @param descending Walk the index backwards
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit Maximum tasks to return
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public TaskPage getTaskPage(String studentEmail, SortOrder sort, boolean descending, String cursor, int limit) {
+        StudentTaskIndex owned = studentIndex(studentEmail);
+        if (owned == null || limit <= 0) {
+            return new TaskPage(Collections.emptyList(), null);
+        }
+        return owned.page(sort != null ? sort : SortOrder.CREATED, descending, cursor, limit);
+    }
+
+    /**
+     * Tasks owned by a student, in creation order. The view is weakly consistent:
+     * safe to iterate while other threads mutate, without locking.
+     */
+    private Collection<Task> studentTasks(String studentEmail) {
+        StudentTaskIndex owned = studentIndex(studentEmail);
+        return owned != null ? owned.all() : Collections.emptyList();
+    }
+
+    /**
+     * A student's index, or null if the email is null or has no tasks
+     */
+    private StudentTaskIndex studentIndex(String studentEmail) {
+        return studentEmail != null ? tasksByStudent.get(normalizeEmail(studentEmail)) : null;
+    }
+
+    private Stream<Task> studentTaskStream(String studentEmail) {
+        return studentTasks(studentEmail).stream();
+    }
+
+    /**
+     * Add a task to the primary and per-student indexes.
+     * Caller holds the task's student lock (or is loading single-threaded).
+     */
+    private void indexTask(Task task) {
+        Task previous = tasks.put(task.getId(), task);
+        if (previous != null && previous != task) {
+            removeFromStudentIndex(previous);
+        }
+        tasksByStudent.computeIfAbsent(normalizeEmail(task.getStudentEmail()), key -> new StudentTaskIndex())
+                .add(task);
+    }
+
+    /**
+     * Remove a task from the primary and per-student indexes.
+     * Caller holds the task's student lock (or is loading single-threaded).
+     * @return false if the task was no longer indexed
+     */
+    private boolean unindexTask(Task task) {
+        if (!tasks.remove(task.getId(), task)) {
+            return false;
+        }
+        removeFromStudentIndex(task);
+        return true;
+    }
+
+    private void removeFromStudentIndex(Task task) {
+        String key = normalizeEmail(task.getStudentEmail());
+        StudentTaskIndex owned = tasksByStudent.get(key);
+        if (owned != null) {
+            owned.remove(task);
+            if (owned.isEmpty()) {
+                tasksByStudent.remove(key, owned);
+            }
+        }
+    }
+
+    private ReentrantLock lockFor(String studentEmail) {
+        return studentLocks[stripeFor(studentEmail)];
+    }
+
+    private static int stripeFor(String studentEmail) {
+        int h = normalizeEmail(studentEmail).hashCode();
+        return (h ^ (h >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    /**
+     * Take the selected stripes in ascending order (the same order lockAllStudents uses)
+     */
+    private void lockStripes(boolean[] stripes) {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            if (stripes[i]) {
+                studentLocks[i].lock();
+            }
+        }
+    }
+
+    private void unlockStripes(boolean[] stripes) {
+        for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+            if (stripes[i]) {
+                studentLocks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Take every stripe, in a fixed order, for operations that need a consistent view of all tasks
+     */
+    private void lockAllStudents() {
+        for (ReentrantLock lock : studentLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAllStudents() {
+        for (int i = studentLocks.length - 1; i >= 0; i--) {
+            studentLocks[i].unlock();
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * All tasks in id (creation) order
+     */
+    private List<Task> allTasks() {
+        List<Task> all = tasks.values();
+        all.sort(Comparator.comparingInt(Task::getId));
+        return all;
+    }
+
     // File Operations
 
     /**
-     * Load tasks from file
+     * Load tasks from the snapshot file, then replay any journal records written after it
+     * @throws UncheckedIOException if a snapshot or journal exists but can't be read; starting
+     *         empty instead would let the next save or compaction overwrite it
      */
     private void loadTasks() {
         try {
-            List<String> lines = fileHandler.readFile(TASKS_FILE);
-            for (String line : lines) {
-                Task task = parseTaskFromString(line);
+            long start = System.nanoTime();
+            String source = loadSnapshot();
+
+            int replayed = replayJournal(COMPACTING_JOURNAL_FILE) + replayJournal(JOURNAL_FILE);
+            if (replayed > 0) {
+                System.out.println("Replayed " + replayed + " journal records.");
+                if (!journaled && saveTasks()) {
+                    // Journal left over from journaled mode is now folded into the snapshot
+                    fileHandler.deleteFile(COMPACTING_JOURNAL_FILE);
+                    fileHandler.deleteFile(JOURNAL_FILE);
+                }
+            }
+            if (source != null && !source.equals(snapshotFile())) {
+                migrateSnapshot(source);
+            }
+            System.out.println("Loaded " + tasks.size() + " tasks in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load tasks (fix or move the file aside to start empty): "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load the newest snapshot, preferring the configured format's file
+     * @return the file loaded, or null if there is none
+     */
+    private String loadSnapshot() throws IOException {
+        String preferred = snapshotFile();
+        String other = BINARY_SNAPSHOT ? TASKS_FILE : BINARY_TASKS_FILE;
+        String source = fileHandler.fileExists(preferred) ? preferred
+                : fileHandler.fileExists(other) ? other : null;
+
+        if (BINARY_TASKS_FILE.equals(source)) {
+            TaskSnapshot.read(Paths.get(source), this::loadTask);
+        } else if (source != null) {
+            ParallelTaskFileLoader.Result loaded = ParallelTaskFileLoader.load(Paths.get(source), this::parseTaskFromString);
+            for (Task task : loaded.tasks) {
+                indexTask(task);
+            }
+            nextId.accumulateAndGet(loaded.maxId + 1, Math::max);
+        }
+        return source;
+    }
+
+    /**
+     * Rewrite tasks loaded from the other format's file in the configured format, then
+     * rename the old file to .bak so it is kept but never loaded over the new one.
+     * Journal records already replayed are idempotent, so the journal is left for
+     * compaction as usual.
+     */
+    private void migrateSnapshot(String source) {
+        try {
+            fileHandler.writeBytesAtomically(snapshotFile(), encodeSnapshot());
+            if (fileHandler.createBackup(source, ".bak")) {
+                fileHandler.deleteFile(source);
+            }
+            System.out.println("Migrated " + source + " to " + snapshotFile() + " (kept as " + source + ".bak).");
+        } catch (IOException e) {
+            System.err.println("Error migrating " + source + ", keeping it: " + e.getMessage());
+        }
+    }
+
+    private static String snapshotFile() {
+        return BINARY_SNAPSHOT ? BINARY_TASKS_FILE : TASKS_FILE;
+    }
+
+    /**
+     * Open the journal and fold anything replayed at startup into a fresh snapshot
+     */
+    private void openJournal() {
+        try {
+            boolean hasPendingRecords = fileHandler.getFileSize(JOURNAL_FILE) > 0
+                    || fileHandler.fileExists(COMPACTING_JOURNAL_FILE);
+            journal = new JournalWriter(JOURNAL_FILE);
+            if (hasPendingRecords) {
+                scheduleCompaction();
+            }
+        } catch (IOException e) {
+            System.err.println("Error opening task journal, falling back to full saves: " + e.getMessage());
+        }
+    }
+
+    private void loadTask(Task task) {
+        indexTask(task);
+        nextId.accumulateAndGet(task.getId() + 1, Math::max);
+    }
+
+    /**
+     * Apply journal records on top of the in-memory state
+     * @return number of records applied
+     */
+    private int replayJournal(String filename) throws IOException {
+        if (!fileHandler.fileExists(filename)) {
+            return 0;
+        }
+        int applied = 0;
+        for (String record : fileHandler.readFile(filename)) {
+            if (record.startsWith(UPSERT_RECORD)) {
+                Task task = parseTaskFromString(record.substring(UPSERT_RECORD.length()));
                 if (task != null) {
-                    tasks.add(task);
-                    if (task.getId() >= nextId) {
-                        nextId = task.getId() + 1;
+                    loadTask(task);
+                    applied++;
+                }
+            } else if (record.startsWith(DELETE_RECORD)) {
+                try {
+                    Task task = tasks.get(Integer.parseInt(record.substring(DELETE_RECORD.length())));
+                    if (task != null) {
+                        unindexTask(task);
                     }
+                    applied++;
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping malformed journal record: " + record);
                 }
             }
-            System.out.println("Loaded " + tasks.size() + " tasks.");
+            // Anything else is a torn write from a crash and is ignored
+        }
+        return applied;
+    }
+
+    /**
+     * Persist the current state of one task. Must be called while holding the task's
+     * student lock so journal records are queued in mutation order.
+     * @return future completed once the change is durable
+     */
+    private CompletableFuture<Void> persistTask(Task task) {
+        if (journal == null) {
+            return saveTasksAsCommit();
+        }
+        return appendToJournal(UPSERT_RECORD + taskToString(task));
+    }
+
+    /**
+     * Persist the removal of one task. Must be called while holding the task's student lock.
+     * @return future completed once the change is durable
+     */
+    private CompletableFuture<Void> persistDelete(int id) {
+        if (journal == null) {
+            return saveTasksAsCommit();
+        }
+        return appendToJournal(DELETE_RECORD + id);
+    }
+
+    /**
+     * Persist a batch of journal records in one commit (or one snapshot rewrite).
+     * Must be called while holding the locks of every student involved.
+     */
+    private CompletableFuture<Void> persistBatch(List<String> records) {
+        if (journal == null) {
+            return saveTasksAsCommit();
+        }
+        if (journal.getRecordCount() >= COMPACTION_THRESHOLD) {
+            scheduleCompaction();
+        }
+        return journal.appendAllAsync(records);
+    }
+
+    private CompletableFuture<Void> appendToJournal(String record) {
+        if (journal.getRecordCount() >= COMPACTION_THRESHOLD) {
+            scheduleCompaction();
+        }
+        return journal.appendAsync(record);
+    }
+
+    /**
+     * Wait (outside any lock) for a queued change to reach the disk, so concurrent
+     * callers share one group commit instead of serializing on fsync.
+     * A failed commit can't be rolled back (other threads may already have seen or built on
+     * the change), so the store is marked failed and refuses further changes until a
+     * compaction writes all of memory to a fresh snapshot; one is queued right away.
+     * @throws UncheckedIOException if the change could not be persisted
+     */
+    private void awaitCommit(CompletableFuture<Void> commit) {
+        try {
+            JournalWriter.await(commit);
+        } catch (IOException e) {
+            System.err.println("Error writing task changes, refusing further changes until a snapshot succeeds: "
+                    + e.getMessage());
+            storageFailure.compareAndSet(null, new StorageFailure(e));
+            scheduleCompaction();
+            throw new UncheckedIOException("Task change could not be saved: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException if an earlier change failed to persist and storage hasn't
+     *         recovered yet; another recovery attempt is queued
+     */
+    private void checkWritable() {
+        StorageFailure failure = storageFailure.get();
+        if (failure != null) {
+            scheduleCompaction();
+            throw new UncheckedIOException("Task storage failed, changes are disabled until it recovers: "
+                    + failure.cause.getMessage(), failure.cause);
+        }
+    }
+
+    /**
+     * Whether changes are being accepted, and the failure that stopped them if not
+     */
+    public StorageStatus getStorageStatus() {
+        StorageFailure failure = storageFailure.get();
+        return failure == null ? new StorageStatus(true, null, null)
+                : new StorageStatus(false, failure.cause.getMessage(), failure.since);
+    }
+
+    /**
+     * Full snapshot save (non-journaled mode) as an already-completed commit
+     */
+    private CompletableFuture<Void> saveTasksAsCommit() {
+        return saveTasks() ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.failedFuture(new IOException("Error saving tasks to " + snapshotFile()));
+    }
+
+    /**
+     * Queue a background compaction unless one is already pending
+     */
+    private void scheduleCompaction() {
+        if (compactionPending.compareAndSet(false, true)) {
+            compactionExecutor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Fold the journal into a fresh snapshot file.
+     * The journal is rotated under every student lock so records appended while the snapshot
+     * is being written go to the new journal and survive the compaction. A compacting journal
+     * left by a crash or failed compaction is appended to, never replaced, and is only
+     * deleted once a snapshot containing its records is on disk.
+     *
+     * Also the recovery from a failed commit (in either persistence mode): the snapshot holds
+     * every change made before it, so once it is on disk the failure seen while taking it is
+     * cleared and changes are accepted again. A failure recorded later stays until the next run.
+     */
+    private void compact() {
+        try {
+            byte[] snapshot;
+            StorageFailure failure;
+            lockAllStudents();
+            try {
+                compactionPending.set(false);
+                failure = storageFailure.get();
+                snapshot = encodeSnapshot();
+                if (journal != null) {
+                    journal.rotate(COMPACTING_JOURNAL_FILE);
+                }
+            } finally {
+                unlockAllStudents();
+            }
+            fileHandler.writeBytesAtomically(snapshotFile(), snapshot);
+            if (journal != null) {
+                fileHandler.deleteFile(COMPACTING_JOURNAL_FILE);
+            }
+            if (failure != null && storageFailure.compareAndSet(failure, null)) {
+                System.out.println("Task storage recovered: snapshot written, changes are accepted again.");
+            }
         } catch (Exception e) {
-            System.out.println("Starting with empty task database.");
+            System.err.println("Error compacting task journal: " + e.getMessage());
         }
     }
 
     /**
-     * Save tasks to file
+     * Save all tasks to the snapshot file (non-journaled mode)
      */
-    private boolean saveTasks() {
+    private synchronized boolean saveTasks() {
         try {
-            List<String> lines = tasks.stream()
-                    .map(this::taskToString)
-                    .collect(Collectors.toList());
-            fileHandler.writeFile(TASKS_FILE, lines);
+            fileHandler.writeBytesAtomically(snapshotFile(), encodeSnapshot());
             return true;
         } catch (Exception e) {
             System.err.println("Error saving tasks: " + e.getMessage());
@@ -327,21 +981,36 @@ public class TaskManager {
         }
     }
 
+    /**
+     * Encode every task in the configured snapshot format
+     */
+    private byte[] encodeSnapshot() {
+        List<Task> all = allTasks();
+        if (BINARY_SNAPSHOT) {
+            return TaskSnapshot.encode(all);
+        }
+        StringBuilder text = new StringBuilder(all.size() * 128);
+        for (Task task : all) {
+            text.append(taskToString(task)).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * Convert task to string for file storage
      */
     private String taskToString(Task task) {
         return String.join("|",
                 String.valueOf(task.getId()),
-                task.getTitle() != null ? task.getTitle() : "",
-                task.getDescription() != null ? task.getDescription() : "",
-                task.getCategory() != null ? task.getCategory() : "",
+                escapeField(task.getTitle()),
+                escapeField(task.getDescription()),
+                escapeField(task.getCategory()),
                 task.getPriority().getValue(),
                 task.getDueDate().toString(),
                 String.valueOf(task.isCompleted()),
                 task.getCreatedAt().toString(),
                 task.getCompletedAt() != null ? task.getCompletedAt().toString() : "null",
-                task.getStudentEmail() != null ? task.getStudentEmail() : ""
+                escapeField(task.getStudentEmail())
         );
     }
 
@@ -350,7 +1019,7 @@ public class TaskManager {
      */
     private Task parseTaskFromString(String line) {
         try {
-            String[] parts = line.split("\\|");
+            String[] parts = splitFields(line);
             if (parts.length >= 10) {
                 Task task = new Task();
                 task.setId(Integer.parseInt(parts[0]));
@@ -373,6 +1042,286 @@ public class TaskManager {
         return null;
     }
 
+    /**
+     * Escape a field so it can't break the '|' separated, one-record-per-line format
+     */
+    private static String escapeField(String value) {
+        if (value == null) return "";
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '\\': replacement = "\\\\"; break;
+                case '|': replacement = "\\p"; break;
+                case '\n': replacement = "\\n"; break;
+                case '\r': replacement = "\\r"; break;
+                default: replacement = null;
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    /**
+     * Split a record on unescaped '|' and unescape each field
+     */
+    private static String[] splitFields(String line) {
+        List<String> fields = new ArrayList<>(10);
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '|') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                switch (next) {
+                    case 'p': field.append('|'); break;
+                    case 'n': field.append('\n'); break;
+                    case 'r': field.append('\r'); break;
+                    default: field.append(next);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Orders a student's tasks can be paged through
+     */
+    public enum SortOrder {
+        DUE_DATE("due"), PRIORITY("priority"), CREATED("created");
+
+        private final String value;
+
+        SortOrder(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public static SortOrder fromString(String sort) {
+            if (sort == null) return CREATED;
+
+            for (SortOrder order : SortOrder.values()) {
+                if (order.value.equalsIgnoreCase(sort) || order.name().equalsIgnoreCase(sort)) {
+                    return order;
+                }
+            }
+            return CREATED;
+        }
+    }
+
+    /**
+     * Inner class for one operation of a batch (see applyBatch)
+     */
+    public static class BatchOperation {
+        public enum Type {
+            ADD("add"),
+            UPDATE("update"),
+            COMPLETE("complete"),
+            DELETE("delete");
+
+            private final String value;
+
+            Type(String value) {
+                this.value = value;
+            }
+
+            public String getValue() {
+                return value;
+            }
+
+            public static Type fromString(String type) {
+                for (Type t : Type.values()) {
+                    if (t.value.equalsIgnoreCase(type)) {
+                        return t;
+                    }
+                }
+                throw new IllegalArgumentException("Unknown batch operation: " + type);
+            }
+        }
+
+        private final Type type;
+        private final int taskId;
+        private final String title;
+        private final String description;
+        private final String category;
+        private final Task.Priority priority;
+        private final LocalDateTime dueDate;
+        private final String studentEmail;
+
+        private BatchOperation(Type type, int taskId, String title, String description, String category,
+                               Task.Priority priority, LocalDateTime dueDate, String studentEmail) {
+            this.type = type;
+            this.taskId = taskId;
+            this.title = title;
+            this.description = description;
+            this.category = category;
+            this.priority = priority;
+            this.dueDate = dueDate;
+            this.studentEmail = studentEmail;
+        }
+
+        public static BatchOperation add(String title, String description, String category,
+                                         Task.Priority priority, LocalDateTime dueDate, String studentEmail) {
+            return new BatchOperation(Type.ADD, 0, title, description, category, priority, dueDate, studentEmail);
+        }
+
+        /**
+         * Edit a task; null arguments leave the field unchanged (as in updateTask)
+         */
+        public static BatchOperation update(int taskId, String title, String description, String category,
+                                            Task.Priority priority, LocalDateTime dueDate) {
+            return new BatchOperation(Type.UPDATE, taskId, title, description, category, priority, dueDate, null);
+        }
+
+        public static BatchOperation complete(int taskId) {
+            return new BatchOperation(Type.COMPLETE, taskId, null, null, null, null, null, null);
+        }
+
+        public static BatchOperation delete(int taskId) {
+            return new BatchOperation(Type.DELETE, taskId, null, null, null, null, null, null);
+        }
+
+        public Type getType() { return type; }
+        public int getTaskId() { return taskId; }
+        public String getTitle() { return title; }
+        public String getDescription() { return description; }
+        public String getCategory() { return category; }
+        public Task.Priority getPriority() { return priority; }
+        public LocalDateTime getDueDate() { return dueDate; }
+        public String getStudentEmail() { return studentEmail; }
+    }
+
+    /**
+     * Inner class for the outcome of one batch operation
+     */
+    public static class BatchResult {
+        private final BatchOperation.Type type;
+        private final int taskId;
+        private final Task task;
+        private final String error;
+
+        private BatchResult(BatchOperation.Type type, int taskId, Task task, String error) {
+            this.type = type;
+            this.taskId = taskId;
+            this.task = task;
+            this.error = error;
+        }
+
+        static BatchResult applied(BatchOperation operation, Task task) {
+            return new BatchResult(operation.getType(), task.getId(), task, null);
+        }
+
+        static BatchResult failed(BatchOperation operation, String error) {
+            return new BatchResult(operation.getType(), operation.getTaskId(), null, error);
+        }
+
+        public BatchOperation.Type getType() { return type; }
+        public int getTaskId() { return taskId; }
+        public Task getTask() { return task; }
+        public String getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+
+        public void writeJson(JsonWriter json) {
+            json.beginObject()
+                    .name("op").value(type.getValue())
+                    .name("success").value(isSuccess());
+            if (taskId != 0) {
+                json.name("taskId").value(taskId);
+            }
+            if (error != null) {
+                json.name("error").value(error);
+            } else if (type != BatchOperation.Type.DELETE) {
+                json.name("task");
+                task.writeJson(json);
+            }
+            json.endObject();
+        }
+    }
+
+    /**
+     * Inner class for one page of tasks
+     */
+    public static class TaskPage {
+        private final List<Task> tasks;
+        private final String nextCursor;
+
+        public TaskPage(List<Task> tasks, String nextCursor) {
+            this.tasks = tasks;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Task> getTasks() { return tasks; }
+        public String getNextCursor() { return nextCursor; }
+        public boolean hasMore() { return nextCursor != null; }
+
+        public void writeJson(JsonWriter json) {
+            json.beginObject().name("tasks").beginArray();
+            for (Task task : tasks) {
+                task.writeJson(json);
+            }
+            json.endArray()
+                    .name("nextCursor").value(nextCursor)
+                    .endObject();
+        }
+    }
+
+    /**
+     * A commit failure and when it was first seen
+     */
+    private static final class StorageFailure {
+        final IOException cause;
+        final LocalDateTime since = LocalDateTime.now();
+
+        StorageFailure(IOException cause) {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Inner class for the task storage state, as reported by the health endpoint
+     */
+    public static class StorageStatus {
+        private final boolean writable;
+        private final String error;
+        private final LocalDateTime failedSince;
+
+        public StorageStatus(boolean writable, String error, LocalDateTime failedSince) {
+            this.writable = writable;
+            this.error = error;
+            this.failedSince = failedSince;
+        }
+
+        public boolean isWritable() { return writable; }
+        public String getError() { return error; }
+        public LocalDateTime getFailedSince() { return failedSince; }
+
+        public void writeJson(JsonWriter json) {
+            json.beginObject()
+                    .name("writable").value(writable)
+                    .name("error").value(error)
+                    .name("failedSince").value(failedSince)
+                    .endObject();
+        }
+    }
+
     /**
      * Inner class for task statistics
      */
@@ -398,10 +1347,20 @@ public class TaskManager {
         public int getDueToday() { return dueToday; }
 
         public String toJson() {
-            return String.format(
-                    "{\"total\":%d,\"completed\":%d,\"pending\":%d,\"overdue\":%d,\"dueToday\":%d}",
-                    total, completed, pending, overdue, dueToday
-            );
+            try (JsonWriter json = JsonWriter.acquire()) {
+                writeJson(json);
+                return json.toString();
+            }
+        }
+
+        public void writeJson(JsonWriter json) {
+            json.beginObject()
+                    .name("total").value(total)
+                    .name("completed").value(completed)
+                    .name("pending").value(pending)
+                    .name("overdue").value(overdue)
+                    .name("dueToday").value(dueToday)
+                    .endObject();
         }
 
         @Override
@@ -0,0 +1,139 @@
+package models;
+
+import utils.RoaringBitmap;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TaskQuery - Composable task filter, evaluated against a TaskBitmapIndex
+ * Leaves select tasks by category, priority or completion; and(), or() and not()
+ * combine them into any boolean expression, e.g.
+ *   TaskQuery.and(TaskQuery.category("Exams"), TaskQuery.priority(Task.Priority.HIGH), TaskQuery.pending())
+ * Each node evaluates to a bitmap of task ordinals within a scope (one student's tasks,
+ * or every task), so a whole query is a handful of bitmap operations on bitmaps no
+ * larger than the scope, regardless of how many predicates it combines.
+ */
+public abstract class TaskQuery {
+
+    TaskQuery() {
+    }
+
+    /**
+     * Ordinals of the matching tasks within scope. Called under the index's read lock; the
+     * result is always a subset of scope, may be scope itself and must not be modified.
+     */
+    abstract RoaringBitmap evaluate(TaskBitmapIndex index, RoaringBitmap scope);
+
+    /**
+     * Every task
+     */
+    public static TaskQuery all() {
+        return new TaskQuery() {
+            @Override
+            RoaringBitmap evaluate(TaskBitmapIndex index, RoaringBitmap scope) {
+                return scope;
+            }
+        };
+    }
+
+    /**
+     * Tasks in a category (case-insensitive)
+     */
+    public static TaskQuery category(String category) {
+        if (category == null) {
+            throw new IllegalArgumentException("category is required");
+        }
+        return new TaskQuery() {
+            @Override
+            RoaringBitmap evaluate(TaskBitmapIndex index, RoaringBitmap scope) {
+                return scope.and(index.category(category));
+            }
+        };
+    }
+
+    public static TaskQuery priority(Task.Priority priority) {
+        if (priority == null) {
+            throw new IllegalArgumentException("priority is required");
+        }
+        return new TaskQuery() {
+            @Override
+            RoaringBitmap evaluate(TaskBitmapIndex index, RoaringBitmap scope) {
+                return scope.and(index.priority(priority));
+            }
+        };
+    }
+
+    public static TaskQuery completed() {
+        return new TaskQuery() {
+            @Override
+            RoaringBitmap evaluate(TaskBitmapIndex index, RoaringBitmap scope) {
+                return scope.and(index.completed());
+            }
+        };
+    }
+
+    public static TaskQuery pending() {
+        return not(completed());
+    }
+
+    /**
+     * Tasks matching every query; and() of nothing matches every task
+     */
+    public static TaskQuery and(TaskQuery... queries) {
+        return and(Arrays.asList(queries));
+    }
+
+    public static TaskQuery and(List<TaskQuery> queries) {
+        List<TaskQuery> terms = List.copyOf(queries);
+        if (terms.isEmpty()) {
+            return all();
+        }
+        return new TaskQuery() {
+            @Override
+            RoaringBitmap evaluate(TaskBitmapIndex index, RoaringBitmap scope) {
+                // Each term only has to look inside what the previous terms matched
+                RoaringBitmap result = scope;
+                for (int i = 0; i < terms.size() && !result.isEmpty(); i++) {
+                    result = terms.get(i).evaluate(index, result);
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Tasks matching any query; or() of nothing matches no task
+     */
+    public static TaskQuery or(TaskQuery... queries) {
+        return or(Arrays.asList(queries));
+    }
+
+    public static TaskQuery or(List<TaskQuery> queries) {
+        List<TaskQuery> terms = List.copyOf(queries);
+        return new TaskQuery() {
+            @Override
+            RoaringBitmap evaluate(TaskBitmapIndex index, RoaringBitmap scope) {
+                RoaringBitmap result = new RoaringBitmap();
+                for (TaskQuery term : terms) {
+                    result = result.or(term.evaluate(index, scope));
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Tasks not matching a query
+     */
+    public static TaskQuery not(TaskQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("query is required");
+        }
+        return new TaskQuery() {
+            @Override
+            RoaringBitmap evaluate(TaskBitmapIndex index, RoaringBitmap scope) {
+                return scope.andNot(query.evaluate(index, scope));
+            }
+        };
+    }
+}
@@ -0,0 +1,231 @@
+package models;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * TaskSearchIndex - Inverted index over one student's task titles and descriptions
+ * Terms live in a sorted dictionary so a query term matches whole words and word
+ * prefixes ("assi" finds "assignment"); terms of three or more characters also match
+ * inside words through a trigram index ("sign" finds "assignment").
+ *
+ * Writers hold the student lock (see StudentTaskIndex); searches don't lock.
+ */
+class TaskSearchIndex {
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int GRAM = 3;
+
+    // term -> (task -> summed field weight)
+    private final ConcurrentSkipListMap<String, Map<Task, Integer>> terms = new ConcurrentSkipListMap<>();
+    // trigram -> tasks whose title or description contains it
+    private final Map<String, Set<Task>> trigrams = new ConcurrentHashMap<>();
+    // What was indexed for each task, so removal doesn't depend on the task's current fields
+    private final Map<Task, Indexed> indexed = new ConcurrentHashMap<>();
+
+    void add(Task task) {
+        add(task, new Indexed(lower(task.getTitle()), lower(task.getDescription())));
+    }
+
+    private void add(Task task, Indexed entry) {
+        indexed.put(task, entry);
+        for (Map.Entry<String, Integer> term : entry.termWeights.entrySet()) {
+            terms.computeIfAbsent(term.getKey(), key -> new ConcurrentHashMap<>())
+                    .put(task, term.getValue());
+        }
+        for (String gram : entry.grams) {
+            trigrams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(task);
+        }
+    }
+
+    void remove(Task task) {
+        Indexed entry = indexed.remove(task);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.termWeights.keySet()) {
+            Map<Task, Integer> postings = terms.get(term);
+            if (postings != null) {
+                postings.remove(task);
+                if (postings.isEmpty()) {
+                    terms.remove(term, postings);
+                }
+            }
+        }
+        for (String gram : entry.grams) {
+            Set<Task> postings = trigrams.get(gram);
+            if (postings != null) {
+                postings.remove(task);
+                if (postings.isEmpty()) {
+                    trigrams.remove(gram, postings);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move a task's postings to its new version, re-tokenizing only if its text changed.
+     * Postings are keyed by Task, which compares by id, so the old entries are removed
+     * first; a plain put would keep the old version as the key.
+     */
+    void update(Task previous, Task updated) {
+        Indexed entry = indexed.get(previous);
+        remove(previous);
+        if (entry != null && entry.title.equals(lower(updated.getTitle()))
+                && entry.description.equals(lower(updated.getDescription()))) {
+            add(updated, entry);
+        } else {
+            add(updated);
+        }
+    }
+
+    /**
+     * Tasks matching every term of the query, best match first
+     * @param limit Maximum results
+     */
+    List<Task> search(String query, int limit) {
+        String normalized = lower(query).trim();
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<String> queryTerms = new ArrayList<>(tokenize(normalized));
+        if (queryTerms.isEmpty()) {
+            queryTerms.add(normalized); // all punctuation: fall back to a plain substring match
+        }
+
+        Map<Task, Double> scores = null;
+        for (String term : queryTerms) {
+            Map<Task, Double> termScores = scoreTerm(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                for (Map.Entry<Task, Double> score : scores.entrySet()) {
+                    score.setValue(score.getValue() + termScores.get(score.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map.Entry<Task, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int byScore = Double.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : Integer.compare(b.getKey().getId(), a.getKey().getId());
+        });
+        List<Task> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Score one query term: whole-word hits count double, prefix hits once, infix hits half
+     */
+    private Map<Task, Double> scoreTerm(String term) {
+        Map<Task, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Task, Integer>> entry
+                : terms.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+            double factor = entry.getKey().equals(term) ? 2.0 : 1.0;
+            for (Map.Entry<Task, Integer> posting : entry.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+
+        if (term.length() >= GRAM) {
+            for (Task candidate : infixCandidates(term)) {
+                if (scores.containsKey(candidate)) {
+                    continue;
+                }
+                Indexed entry = indexed.get(candidate);
+                if (entry == null) {
+                    continue;
+                }
+                int weight = (entry.title.contains(term) ? TITLE_WEIGHT : 0)
+                        + (entry.description.contains(term) ? DESCRIPTION_WEIGHT : 0);
+                if (weight > 0) {
+                    scores.put(candidate, weight * 0.5);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Tasks containing every trigram of the term (a superset of the real matches)
+     */
+    private Set<Task> infixCandidates(String term) {
+        List<Set<Task>> postings = new ArrayList<>();
+        for (String gram : grams(term)) {
+            Set<Task> tasks = trigrams.get(gram);
+            if (tasks == null) {
+                return Collections.emptySet();
+            }
+            postings.add(tasks);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Task> candidates = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(postings.get(i));
+        }
+        return candidates;
+    }
+
+    // Text processing
+
+    private static String lower(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Split lower-cased text into letter/digit runs
+     */
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Lower-cased text and derived postings for one task, as of its last indexing
+     */
+    private static final class Indexed {
+        final String title;
+        final String description;
+        final Map<String, Integer> termWeights = new HashMap<>();
+        final Set<String> grams = new HashSet<>();
+
+        Indexed(String title, String description) {
+            this.title = title;
+            this.description = description;
+            for (String token : tokenize(title)) {
+                termWeights.merge(token, TITLE_WEIGHT, Integer::sum);
+            }
+            for (String token : tokenize(description)) {
+                termWeights.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+            }
+            grams.addAll(grams(title));
+            grams.addAll(grams(description));
+        }
+    }
+}
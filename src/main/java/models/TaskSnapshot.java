@@ -0,0 +1,244 @@
+package models;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * TaskSnapshot - Versioned binary encoding of all tasks (data/tasks.bin)
+ * Layout (big-endian):
+ *   int magic "STSK", int version
+ *   int string count, then per string: int length, UTF-8 bytes
+ *   int task count, then per task:
+ *     int id, str title, str description, int category ref, byte priority ordinal,
+ *     time due, byte completed, time created, time completedAt, int email ref
+ * "str" is an int length (-1 for null) followed by UTF-8 bytes; a "ref" is an index into
+ * the string table (-1 for null), so each distinct category and email is stored and
+ * decoded once. A "time" is Task's own long epoch second (Long.MIN_VALUE for null) and
+ * int nano-of-second, written and read without going through LocalDateTime.
+ * Version 1 files (whole-second times, no nano ints) are still read.
+ *
+ * Loading maps the file read-only and decodes straight from the mapping, with no
+ * per-line String, regex split or date-time text parsing.
+ */
+final class TaskSnapshot {
+    static final int MAGIC = 0x5354534B; // "STSK"
+    static final int VERSION = 2;
+    private static final int VERSION_WHOLE_SECONDS = 1;
+    private static final Task.Priority[] PRIORITIES = Task.Priority.values();
+    // Smallest encodings, used to reject counts the remaining bytes can't possibly hold
+    private static final int MIN_STRING_BYTES = 4;
+    private static final int MIN_RECORD_BYTES_V1 = 4 + 4 + 4 + 4 + 1 + 8 + 1 + 8 + 8 + 4;
+    private static final int MIN_RECORD_BYTES = MIN_RECORD_BYTES_V1 + 3 * 4;
+
+    private TaskSnapshot() {
+    }
+
+    /**
+     * Encode tasks into snapshot bytes. Tasks must not change while this runs.
+     */
+    static byte[] encode(Collection<Task> tasks) {
+        // Pass 1: string table of categories and emails
+        Map<String, Integer> refs = new HashMap<>();
+        for (Task task : tasks) {
+            addRef(refs, task.getCategory());
+            addRef(refs, task.getStudentEmail());
+        }
+        String[] table = new String[refs.size()];
+        for (Map.Entry<String, Integer> entry : refs.entrySet()) {
+            table[entry.getValue()] = entry.getKey();
+        }
+
+        // Pass 2: header, string table, records
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + tasks.size() * 96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(table.length);
+            for (String value : table) {
+                writeString(out, value);
+            }
+            out.writeInt(tasks.size());
+            for (Task task : tasks) {
+                out.writeInt(task.getId());
+                writeString(out, task.getTitle());
+                writeString(out, task.getDescription());
+                out.writeInt(ref(refs, task.getCategory()));
+                out.writeByte(task.getPriority() != null ? task.getPriority().ordinal() : Task.Priority.MEDIUM.ordinal());
+                out.writeLong(task.dueEpochSecond());
+                out.writeInt(task.dueNano());
+                out.writeByte(task.isCompleted() ? 1 : 0);
+                out.writeLong(task.createdEpochSecond());
+                out.writeInt(task.createdNano());
+                out.writeLong(task.completedEpochSecond());
+                out.writeInt(task.completedNano());
+                out.writeInt(ref(refs, task.getStudentEmail()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a snapshot file, handing each task to a consumer
+     * @return number of tasks read
+     * @throws IOException if the file can't be read or isn't a valid snapshot
+     */
+    static int read(Path path, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + size + " bytes");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(buffer, consumer);
+        } catch (CorruptSnapshotException e) {
+            throw new IOException("Truncated or corrupt snapshot " + path + ": " + e.getMessage(), e);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Decode every record. Counts, lengths, refs and ordinals read from the file are
+     * checked before use, so a corrupt file fails with an exception instead of a huge
+     * allocation.
+     */
+    private static int decode(ByteBuffer buffer, Consumer<Task> consumer) throws IOException {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a task snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION && version != VERSION_WHOLE_SECONDS) {
+            throw new IOException("Unsupported task snapshot version " + version);
+        }
+        boolean nanos = version != VERSION_WHOLE_SECONDS;
+
+        StringDecoder strings = new StringDecoder(buffer);
+        String[] table = new String[checkCount(buffer, buffer.getInt(), MIN_STRING_BYTES, "string table size")];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = strings.next();
+        }
+
+        int count = checkCount(buffer, buffer.getInt(), nanos ? MIN_RECORD_BYTES : MIN_RECORD_BYTES_V1, "task count");
+        for (int i = 0; i < count; i++) {
+            int id = buffer.getInt();
+            String title = strings.next();
+            String description = strings.next();
+            String category = lookup(table, buffer.getInt());
+            int priority = buffer.get();
+            if (priority < 0 || priority >= PRIORITIES.length) {
+                throw new CorruptSnapshotException("priority " + priority + " in task " + id);
+            }
+            long due = buffer.getLong();
+            int dueNanos = nanos ? nano(buffer, id) : 0;
+            boolean completed = buffer.get() != 0;
+            long created = buffer.getLong();
+            int createdNanos = nanos ? nano(buffer, id) : 0;
+            long completedAt = buffer.getLong();
+            int completedNanos = nanos ? nano(buffer, id) : 0;
+            String email = lookup(table, buffer.getInt());
+            consumer.accept(new Task(id, title, description, category, PRIORITIES[priority],
+                    due, dueNanos, completed, created, createdNanos, completedAt, completedNanos, email));
+        }
+        return count;
+    }
+
+    /**
+     * @param minBytes Smallest encoding of one counted item
+     * @return the count, if it is non-negative and the remaining bytes could hold that many items
+     */
+    private static int checkCount(ByteBuffer buffer, int count, int minBytes, String what)
+            throws CorruptSnapshotException {
+        if (count < 0 || count > buffer.remaining() / minBytes) {
+            throw new CorruptSnapshotException(what + " " + count + " with " + buffer.remaining() + " bytes left");
+        }
+        return count;
+    }
+
+    private static int nano(ByteBuffer buffer, int id) throws CorruptSnapshotException {
+        int nano = buffer.getInt();
+        if (nano < 0 || nano > 999_999_999) {
+            throw new CorruptSnapshotException("nano-of-second " + nano + " in task " + id);
+        }
+        return nano;
+    }
+
+    private static void addRef(Map<String, Integer> refs, String value) {
+        if (value != null) {
+            refs.putIfAbsent(value, refs.size());
+        }
+    }
+
+    private static int ref(Map<String, Integer> refs, String value) {
+        return value != null ? refs.get(value) : -1;
+    }
+
+    private static String lookup(String[] table, int ref) throws CorruptSnapshotException {
+        if (ref < -1 || ref >= table.length) {
+            throw new CorruptSnapshotException("string ref " + ref + " outside a table of " + table.length);
+        }
+        return ref >= 0 ? table[ref] : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    /**
+     * Reads length-prefixed UTF-8 strings through one reusable byte buffer
+     */
+    private static final class StringDecoder {
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        StringDecoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        String next() throws CorruptSnapshotException {
+            int length = buffer.getInt();
+            if (length == -1) {
+                return null;
+            }
+            if (length < 0 || length > buffer.remaining()) {
+                throw new CorruptSnapshotException("string length " + length + " with "
+                        + buffer.remaining() + " bytes left");
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A count, length, ref or ordinal in the file that can't be valid
+     */
+    private static final class CorruptSnapshotException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        CorruptSnapshotException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package scheduler;
+
+import utils.FileHandler;
+import java.io.IOException;
+
+/**
+ * FileReminderSink - Appends each reminder as one JSON line to a file
+ */
+public class FileReminderSink implements ReminderSink {
+    private final FileHandler fileHandler = new FileHandler();
+    private final String filename;
+
+    public FileReminderSink(String filename) {
+        this.filename = filename;
+    }
+
+    @Override
+    public void deliver(ReminderEvent event) throws IOException {
+        fileHandler.appendToFile(filename, event.toJson());
+    }
+}
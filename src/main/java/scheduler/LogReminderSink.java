@@ -0,0 +1,12 @@
+package scheduler;
+
+/**
+ * LogReminderSink - Prints reminders to standard output
+ */
+public class LogReminderSink implements ReminderSink {
+
+    @Override
+    public void deliver(ReminderEvent event) {
+        System.out.println("Reminder: " + event);
+    }
+}
@@ -0,0 +1,73 @@
+package scheduler;
+
+import models.Task;
+import utils.JsonWriter;
+import java.time.LocalDateTime;
+
+/**
+ * ReminderEvent - A task coming due or going overdue
+ */
+public class ReminderEvent {
+    public enum Type {
+        DUE_SOON("due_soon"),
+        OVERDUE("overdue");
+
+        private final String value;
+
+        Type(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    private final Type type;
+    private final int taskId;
+    private final String title;
+    private final String studentEmail;
+    private final LocalDateTime dueDate;
+    private final LocalDateTime firedAt;
+
+    public ReminderEvent(Type type, Task task, LocalDateTime firedAt) {
+        this.type = type;
+        this.taskId = task.getId();
+        this.title = task.getTitle();
+        this.studentEmail = task.getStudentEmail();
+        this.dueDate = task.getDueDate();
+        this.firedAt = firedAt;
+    }
+
+    // Getters
+    public Type getType() { return type; }
+    public int getTaskId() { return taskId; }
+    public String getTitle() { return title; }
+    public String getStudentEmail() { return studentEmail; }
+    public LocalDateTime getDueDate() { return dueDate; }
+    public LocalDateTime getFiredAt() { return firedAt; }
+
+    public void writeJson(JsonWriter json) {
+        json.beginObject()
+                .name("type").value(type.getValue())
+                .name("taskId").value(taskId)
+                .name("title").value(title)
+                .name("studentEmail").value(studentEmail)
+                .name("dueDate").value(dueDate)
+                .name("firedAt").value(firedAt)
+                .endObject();
+    }
+
+    public String toJson() {
+        try (JsonWriter json = JsonWriter.acquire()) {
+            writeJson(json);
+            return json.toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[" + type.getValue() + "] Task #" + taskId + " \"" + title + "\" for " + studentEmail
+                + " due " + dueDate;
+    }
+}
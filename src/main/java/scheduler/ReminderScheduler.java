@@ -0,0 +1,286 @@
+package scheduler;
+
+import models.Task;
+import models.TaskListener;
+import models.TaskManager;
+import utils.IntHashMap;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReminderScheduler - Emits reminder events as pending tasks come due and go overdue
+ * Every pending task has up to two timeouts in a TimingWheel: DUE_SOON at the lead time
+ * before its due date and OVERDUE at the due date. It listens to TaskManager, so editing
+ * a due date reschedules the task and completing or deleting it cancels its timeouts.
+ * Each reminder fires once per due date: other edits keep the timeouts (and what already
+ * fired) as they are, and reminders whose time has passed are only fired late for a new
+ * due date or a reopened task.
+ *
+ * A ticker thread turns the wheel; expired events are handed to a separate delivery
+ * thread so a slow sink never delays the wheel.
+ *
+ * Configuration (system properties):
+ *   smarttask.reminders.sinks        comma-separated: log, file, webhook (default log)
+ *   smarttask.reminders.file         file sink target (default data/reminders.log)
+ *   smarttask.reminders.webhookUrl   webhook sink target
+ *   smarttask.reminders.leadMinutes  DUE_SOON lead time, 0 to disable (default 60)
+ *   smarttask.reminders.tickMillis   wheel resolution (default 1000)
+ */
+public class ReminderScheduler implements TaskListener {
+    private static final String DEFAULT_FILE = "data/reminders.log";
+    private static final String DEFAULT_WEBHOOK_URL = "http://localhost:8080/api/webhooks/reminders";
+
+    private final TaskManager taskManager;
+    private final List<ReminderSink> sinks;
+    private final long leadMillis;
+    private final TimingWheel<Reminder> wheel;
+    // Task id -> its timeouts; guarded by "this", like the wheel
+    private final IntHashMap<ScheduledTask> scheduled = new IntHashMap<>();
+
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reminder-delivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Thread ticker;
+    private volatile boolean running;
+
+    public ReminderScheduler(TaskManager taskManager, List<ReminderSink> sinks, long leadMinutes, long tickMillis) {
+        this.taskManager = taskManager;
+        this.sinks = new ArrayList<>(sinks);
+        this.leadMillis = TimeUnit.MINUTES.toMillis(Math.max(0, leadMinutes));
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Build a scheduler configured from the smarttask.reminders.* system properties
+     */
+    public static ReminderScheduler fromSystemProperties(TaskManager taskManager) throws IOException {
+        List<ReminderSink> sinks = new ArrayList<>();
+        for (String name : System.getProperty("smarttask.reminders.sinks", "log").split(",")) {
+            switch (name.trim().toLowerCase()) {
+                case "log":
+                    sinks.add(new LogReminderSink());
+                    break;
+                case "file":
+                    sinks.add(new FileReminderSink(System.getProperty("smarttask.reminders.file", DEFAULT_FILE)));
+                    break;
+                case "webhook":
+                    sinks.add(new WebhookReminderSink(
+                            System.getProperty("smarttask.reminders.webhookUrl", DEFAULT_WEBHOOK_URL)));
+                    break;
+                case "":
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown reminder sink: " + name);
+            }
+        }
+        return new ReminderScheduler(taskManager, sinks,
+                Long.getLong("smarttask.reminders.leadMinutes", 60),
+                Long.getLong("smarttask.reminders.tickMillis", 1000));
+    }
+
+    /**
+     * Schedule every pending task and start turning the wheel.
+     * Reminders whose time passed before startup are not replayed.
+     */
+    public void start() {
+        taskManager.addTaskListener(this);
+        for (Task task : taskManager.getAllTasks()) {
+            if (!task.isCompleted()) {
+                schedule(task, false);
+            }
+        }
+
+        running = true;
+        ticker = new Thread(this::run, "reminder-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+        System.out.println("Reminder scheduler started: " + pendingCount() + " reminders pending.");
+    }
+
+    public void stop() {
+        running = false;
+        taskManager.removeTaskListener(this);
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+        delivery.shutdown();
+        try {
+            delivery.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ReminderSink sink : sinks) {
+            sink.close();
+        }
+    }
+
+    /**
+     * Number of reminders waiting to fire
+     */
+    public synchronized int pendingCount() {
+        return wheel.size();
+    }
+
+    // TaskListener
+
+    @Override
+    public void taskAdded(Task task) {
+        schedule(task, true);
+    }
+
+    @Override
+    public synchronized void taskUpdated(Task task) {
+        if (task.isCompleted()) {
+            cancel(task.getId());
+            return;
+        }
+        // No entry means the task was completed (or had no due date) until now
+        ScheduledTask existing = scheduled.get(task.getId());
+        boolean newDueOrReopened = existing == null || !Objects.equals(existing.dueDate, task.getDueDate());
+        schedule(task, newDueOrReopened);
+    }
+
+    @Override
+    public void taskDeleted(Task task) {
+        cancel(task.getId());
+    }
+
+    // Scheduling
+
+    /**
+     * (Re)schedule a pending task's reminders; a no-op if its due date hasn't changed
+     * (so reminders that already fired stay fired) or the task has been replaced or
+     * deleted (listeners can see an update after the delete)
+     * @param fireMissed true to fire reminders whose time has already passed
+     */
+    private synchronized void schedule(Task task, boolean fireMissed) {
+        if (!isLive(task)) {
+            return;
+        }
+        LocalDateTime dueDate = task.getDueDate();
+        ScheduledTask existing = scheduled.get(task.getId());
+        if (existing != null) {
+            if (existing.dueDate.equals(dueDate)) {
+                return;
+            }
+            cancel(existing);
+        }
+        if (dueDate == null) {
+            scheduled.remove(task.getId());
+            return;
+        }
+
+        ScheduledTask entry = new ScheduledTask(task.getId(), dueDate);
+        long now = System.currentTimeMillis();
+        long due = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (due > now || fireMissed) {
+            entry.overdue = wheel.schedule(due, new Reminder(entry, ReminderEvent.Type.OVERDUE));
+        }
+        if (leadMillis > 0 && due > now && (due - leadMillis > now || fireMissed)) {
+            entry.dueSoon = wheel.schedule(due - leadMillis, new Reminder(entry, ReminderEvent.Type.DUE_SOON));
+        }
+        scheduled.put(task.getId(), entry);
+    }
+
+    private synchronized void cancel(int taskId) {
+        ScheduledTask entry = scheduled.remove(taskId);
+        if (entry != null) {
+            cancel(entry);
+        }
+    }
+
+    private void cancel(ScheduledTask entry) {
+        wheel.cancel(entry.dueSoon);
+        wheel.cancel(entry.overdue);
+    }
+
+    // Ticker
+
+    private void run() {
+        List<Reminder> expired = new ArrayList<>();
+        while (running) {
+            long sleepMillis;
+            synchronized (this) {
+                wheel.advanceTo(System.currentTimeMillis(), expired::add);
+                sleepMillis = wheel.nextTickMillis() - System.currentTimeMillis();
+                // Drop reminders of cancelled entries and ones already fired for this due date
+                expired.removeIf(reminder -> scheduled.get(reminder.entry.taskId) != reminder.entry
+                        || !reminder.entry.fired.add(reminder.type));
+            }
+            if (!expired.isEmpty()) {
+                LocalDateTime firedAt = LocalDateTime.now();
+                for (Reminder reminder : expired) {
+                    // Tasks are replaced on every edit, so report the current version
+                    Task task = taskManager.getTaskById(reminder.entry.taskId);
+                    if (task != null && !task.isCompleted()) {
+                        ReminderEvent event = new ReminderEvent(reminder.type, task, firedAt);
+                        delivery.execute(() -> deliver(event));
+                    }
+                }
+                expired.clear();
+            }
+            try {
+                Thread.sleep(Math.max(1, sleepMillis));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whether the task is still the one TaskManager holds for its id
+     */
+    private boolean isLive(Task task) {
+        return taskManager.getTaskById(task.getId()) == task;
+    }
+
+    private void deliver(ReminderEvent event) {
+        for (ReminderSink sink : sinks) {
+            try {
+                sink.deliver(event);
+            } catch (Exception e) {
+                System.err.println("Reminder sink " + sink.getClass().getSimpleName() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Wheel payload: which reminder to fire for which scheduled task
+     */
+    private static final class Reminder {
+        final ScheduledTask entry;
+        final ReminderEvent.Type type;
+
+        Reminder(ScheduledTask entry, ReminderEvent.Type type) {
+            this.entry = entry;
+            this.type = type;
+        }
+    }
+
+    /**
+     * A pending task's timeouts, the due date they were computed from and the reminders
+     * that have fired for it
+     */
+    private static final class ScheduledTask {
+        final int taskId;
+        final LocalDateTime dueDate;
+        final EnumSet<ReminderEvent.Type> fired = EnumSet.noneOf(ReminderEvent.Type.class);
+        TimingWheel.Timeout<Reminder> dueSoon;
+        TimingWheel.Timeout<Reminder> overdue;
+
+        ScheduledTask(int taskId, LocalDateTime dueDate) {
+            this.taskId = taskId;
+            this.dueDate = dueDate;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package scheduler;
+
+import java.io.IOException;
+
+/**
+ * ReminderSink - Destination for reminder events
+ * Called from the scheduler's single delivery thread, one event at a time.
+ */
+public interface ReminderSink {
+
+    void deliver(ReminderEvent event) throws IOException;
+
+    /**
+     * Release resources when the scheduler stops
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,183 @@
+package scheduler;
+
+import java.util.function.Consumer;
+
+/**
+ * TimingWheel - Hierarchical hashed timing wheel
+ * Five levels of 64 slots: level 0 slots are one tick wide, each higher level's slots
+ * are 64 times wider, covering 2^30 ticks (34 years at one-second ticks). A timeout
+ * sits in the level whose span fits its remaining delay and is cascaded down a level
+ * as the wheel turns, so schedule and cancel are O(1) (an unlink from a doubly-linked
+ * slot list) whatever the number of pending timeouts.
+ *
+ * Not thread-safe; callers serialize access (see ReminderScheduler).
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final long originMillis;
+    // Sentinel head of each slot's circular list, [level][slot]
+    private final Timeout<T>[][] slots;
+    // Next tick to expire
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis Resolution; timeouts fire up to one tick late, never early
+     * @param nowMillis Current time, the wheel's origin
+     */
+    // Java can't allocate a Timeout<T>[][] directly, so the slot array is created raw
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = nowMillis;
+        this.slots = new Timeout[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timeout<T> head = new Timeout<>(null, 0, 0);
+                head.prev = head;
+                head.next = head;
+                slots[level][slot] = head;
+            }
+        }
+    }
+
+    /**
+     * Schedule a payload; a deadline already in the past fires on the next tick
+     */
+    public Timeout<T> schedule(long deadlineMillis, T payload) {
+        long deadlineTick = Math.max(0, Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis));
+        Timeout<T> timeout = new Timeout<>(payload, deadlineMillis, deadlineTick);
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancel a pending timeout
+     * @return false if it already fired or was cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.next == null) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Turn the wheel up to the given time, handing every expired payload to the consumer
+     */
+    public void advanceTo(long nowMillis, Consumer<T> expired) {
+        long nowTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        while (currentTick <= nowTick) {
+            cascade(currentTick);
+            expire(currentTick, expired);
+            currentTick++;
+        }
+    }
+
+    /**
+     * Time at which the next tick becomes due
+     */
+    public long nextTickMillis() {
+        return originMillis + currentTick * tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Internals
+
+    private void insert(Timeout<T> timeout) {
+        long tick = Math.max(timeout.deadlineTick, currentTick);
+        long delay = tick - currentTick;
+        if (delay >= MAX_SPAN) {
+            // Beyond the top level: park at its far edge and re-place when cascaded
+            delay = MAX_SPAN - 1;
+            tick = currentTick + delay;
+        }
+        int level = 0;
+        while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timeout<T> head = slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    /**
+     * At the start of each higher-level slot's span, redistribute its timeouts into
+     * the lower levels; highest level first so nothing lands in an already-emptied slot
+     */
+    private void cascade(long tick) {
+        int top = 0;
+        while (top + 1 < LEVELS && (tick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            Timeout<T> head = slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            Timeout<T> timeout = head.next;
+            head.next = head;
+            head.prev = head;
+            while (timeout != head) {
+                Timeout<T> next = timeout.next;
+                insert(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    private void expire(long tick, Consumer<T> expired) {
+        Timeout<T> head = slots[0][(int) (tick & SLOT_MASK)];
+        while (head.next != head) {
+            Timeout<T> timeout = head.next;
+            unlink(timeout);
+            if (timeout.deadlineTick > tick) {
+                insert(timeout); // parked beyond the top level, not due yet
+                continue;
+            }
+            size--;
+            expired.accept(timeout.payload);
+        }
+    }
+
+    /**
+     * Handle to a scheduled payload, used to cancel it
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineMillis;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineMillis, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() { return payload; }
+        public long getDeadlineMillis() { return deadlineMillis; }
+    }
+}
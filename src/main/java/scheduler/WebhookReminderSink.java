@@ -0,0 +1,52 @@
+package scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebhookReminderSink - POSTs each reminder as JSON to a webhook URL
+ * By default the URL is the web server's own /api/webhooks/reminders stand-in.
+ */
+public class WebhookReminderSink implements ReminderSink {
+    private static final int TIMEOUT_MILLIS = 2000;
+
+    private final URL url;
+
+    public WebhookReminderSink(String url) throws IOException {
+        this.url = URI.create(url).toURL();
+    }
+
+    @Override
+    public void deliver(ReminderEvent event) throws IOException {
+        byte[] body = event.toJson().getBytes(StandardCharsets.UTF_8);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(body);
+            }
+
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null) {
+                    in.readAllBytes();
+                }
+            }
+            if (status >= 300) {
+                throw new IOException("Webhook " + url + " answered " + status);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ConcurrentIntHashMap - Thread-safe int-keyed map built from IntHashMap segments
+ * Each segment has its own StampedLock: writers to different segments never contend,
+ * and reads are optimistic (no lock acquired) unless they race with a write.
+ */
+public class ConcurrentIntHashMap<V> {
+    private static final int DEFAULT_SEGMENTS = 64;
+
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+
+    public ConcurrentIntHashMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentIntHashMap(int segmentCount) {
+        int count = Integer.highestOneBit(Math.max(segmentCount - 1, 1)) << 1;
+        this.segments = (Segment<V>[]) new Segment<?>[count];
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    /**
+     * Get the value mapped to a key
+     * @return mapped value, or null if absent
+     */
+    public V get(int key) {
+        Segment<V> segment = segmentFor(key);
+        StampedLock lock = segment.lock;
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                V value = segment.map.get(key);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // Raced with a resize; fall through to a locked read
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return segment.map.get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Map a key to a value
+     * @return previous value, or null if the key was absent
+     */
+    public V put(int key, V value) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.put(key, value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove a key
+     * @return removed value, or null if the key was absent
+     */
+    public V remove(int key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.remove(key);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove a key only if it is currently mapped to the given value
+     * @return true if the entry was removed
+     */
+    public boolean remove(int key, V expected) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (segment.map.get(key) != expected) {
+                return false;
+            }
+            segment.map.remove(key);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Approximate size; exact when there are no concurrent writes
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Snapshot of all values, consistent per segment (order is unspecified)
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>();
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                result.addAll(segment.map.values());
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    private Segment<V> segmentFor(int key) {
+        int h = key * 0x9E3779B9;
+        return segments[(h >>> 16) & segmentMask];
+    }
+
+    private static class Segment<V> {
+        final StampedLock lock = new StampedLock();
+        final IntHashMap<V> map = new IntHashMap<>();
+    }
+}
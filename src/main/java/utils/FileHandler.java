@@ -1,6 +1,7 @@
 package utils;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
 import java.util.stream.Stream;
@@ -69,6 +70,48 @@ public class FileHandler {
         }
     }
 
+    /**
+     * Replace a file's contents so readers see either the old or the new version, never a partial write
+     * @param filename Path to the file
+     * @param lines List of lines to write
+     * @throws IOException if file operations fail
+     */
+    public void writeFileAtomically(String filename, List<String> lines) throws IOException {
+        // Same encoding as Files.write(path, lines): UTF-8, a line separator after every line
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append(System.lineSeparator());
+        }
+        writeBytesAtomically(filename, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Replace a file's contents with raw bytes, atomically and durably
+     * @param filename Path to the file
+     * @param bytes New contents
+     * @throws IOException if file operations fail
+     */
+    public void writeBytesAtomically(String filename, byte[] bytes) throws IOException {
+        Path path = Paths.get(filename);
+        Path temp = Paths.get(filename + ".tmp");
+
+        // Create parent directories if they don't exist
+        Path parent = path.getParent();
+        if (parent != null && !Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+
+        try {
+            Files.write(temp, bytes, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.SYNC);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing file " + filename + ": " + e.getMessage());
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
     /**
      * Append a line to a file
      * @param filename Path to the file
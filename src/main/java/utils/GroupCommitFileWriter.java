@@ -0,0 +1,115 @@
+package utils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * GroupCommitFileWriter - Coalesces concurrent "save the whole file" requests
+ * Every caller that asks for a commit within the same window shares one snapshot,
+ * one write and one fsync, and returns once that write has finished.
+ */
+public class GroupCommitFileWriter {
+    private static final long DEFAULT_WINDOW_MICROS =
+            Long.getLong("smarttask.commit.windowMicros", 2_000);
+
+    private final String filename;
+    private final Supplier<List<String>> snapshot;
+    private final FileHandler fileHandler;
+    private final long windowNanos;
+    private final Object lock = new Object();
+
+    private Batch current = new Batch();
+    private boolean dirty;
+    private Thread writer;
+
+    /**
+     * @param filename File to rewrite
+     * @param snapshot Produces the file contents; must take whatever lock guards the data
+     */
+    public GroupCommitFileWriter(String filename, Supplier<List<String>> snapshot) {
+        this(filename, snapshot, DEFAULT_WINDOW_MICROS);
+    }
+
+    public GroupCommitFileWriter(String filename, Supplier<List<String>> snapshot, long windowMicros) {
+        this.filename = filename;
+        this.snapshot = snapshot;
+        this.fileHandler = new FileHandler();
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(windowMicros, 0));
+    }
+
+    /**
+     * Request a write that reflects every change made before this call, and wait for it
+     * @return true if the write (and fsync) succeeded
+     */
+    public boolean commit() {
+        synchronized (lock) {
+            Batch batch = current;
+            dirty = true;
+            ensureWriter();
+            lock.notifyAll();
+            try {
+                while (!batch.done) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return batch.succeeded;
+        }
+    }
+
+    private void ensureWriter() {
+        if (writer == null) {
+            writer = new Thread(this::writeLoop, "group-commit-" + filename);
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            Batch batch;
+            synchronized (lock) {
+                try {
+                    while (!dirty) {
+                        lock.wait();
+                    }
+                    // Linger so callers arriving just behind the first one join this write
+                    long deadline = System.nanoTime() + windowNanos;
+                    long remaining;
+                    while ((remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                batch = current;
+                current = new Batch();
+                dirty = false;
+            }
+
+            // Snapshot is taken after the swap, so it includes every change made by this batch's callers
+            boolean succeeded;
+            try {
+                fileHandler.writeFileAtomically(filename, snapshot.get());
+                succeeded = true;
+            } catch (Exception e) {
+                System.err.println("Error committing " + filename + ": " + e.getMessage());
+                succeeded = false;
+            }
+
+            synchronized (lock) {
+                batch.succeeded = succeeded;
+                batch.done = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static class Batch {
+        boolean done;
+        boolean succeeded;
+    }
+}
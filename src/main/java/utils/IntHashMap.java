@@ -0,0 +1,240 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IntHashMap - Open-addressing hash map keyed by primitive int
+ * Avoids boxing keys and the per-entry node allocation of java.util.HashMap.
+ * Not thread-safe; callers are responsible for synchronization.
+ */
+public class IntHashMap<V> {
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    // Key 0 is reserved as the empty marker, so it is stored separately
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int threshold;
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    public IntHashMap() {
+        this(16);
+    }
+
+    public IntHashMap(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(expectedSize, 4) / LOAD_FACTOR));
+        allocate(capacity);
+    }
+
+    /**
+     * Get the value mapped to a key
+     * @param key Key to look up
+     * @return mapped value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : null;
+        }
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == EMPTY) {
+                return null;
+            }
+            if (current == key) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Check if a key is present
+     */
+    public boolean containsKey(int key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Map a key to a value
+     * @return previous value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == EMPTY) {
+            V previous = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size >= threshold) {
+                    rehash(keys.length << 1);
+                }
+                return null;
+            }
+            if (current == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Remove a key
+     * @return removed value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V previous = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) values[index];
+        shiftKeys(index);
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Snapshot of all values (order is unspecified)
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        if (hasZeroKey) {
+            result.add(zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                result.add((V) values[i]);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == EMPTY) {
+                return -1;
+            }
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Backward-shift deletion keeps probe chains intact without tombstones
+     */
+    private void shiftKeys(int index) {
+        int mask = keys.length - 1;
+        int last;
+        while (true) {
+            last = index;
+            index = (index + 1) & mask;
+            int current;
+            while (true) {
+                current = keys[index];
+                if (current == EMPTY) {
+                    keys[last] = EMPTY;
+                    values[last] = null;
+                    return;
+                }
+                int slot = mix(current) & mask;
+                if (last <= index ? (last >= slot || slot > index) : (last >= slot && slot > index)) {
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[index];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = mix(key) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.max(n, 4);
+    }
+}
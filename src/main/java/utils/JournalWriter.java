@@ -0,0 +1,299 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JournalWriter - Append-only, line-oriented log backed by a FileChannel
+ * Records are group-committed: a background thread collects records arriving within
+ * a short window (or until a batch fills), writes them with a single write + fsync,
+ * and only then completes each caller's future.
+ */
+public class JournalWriter implements AutoCloseable {
+    private static final long DEFAULT_WINDOW_MICROS =
+            Long.getLong("smarttask.commit.windowMicros", 2_000);
+    private static final int DEFAULT_MAX_BATCH =
+            Integer.getInteger("smarttask.commit.maxBatch", 512);
+
+    private final Path path;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Object queueLock = new Object();
+    private final Object channelLock = new Object();
+    private final Thread committer;
+
+    private List<PendingRecord> pending = new ArrayList<>();
+    private FileChannel channel;
+    private long recordCount;
+    private volatile boolean closed;
+
+    /**
+     * Open (or create) a journal file with the default commit window and batch size
+     * @param filename Path to the journal file
+     * @throws IOException if the file cannot be opened
+     */
+    public JournalWriter(String filename) throws IOException {
+        this(filename, DEFAULT_WINDOW_MICROS, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Open (or create) a journal file for appending
+     * @param filename Path to the journal file
+     * @param windowMicros How long to wait for more records before committing a batch
+     * @param maxBatch Commit immediately once this many records are queued
+     * @throws IOException if the file cannot be opened
+     */
+    public JournalWriter(String filename, long windowMicros, int maxBatch) throws IOException {
+        this.path = Paths.get(filename);
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(windowMicros, 0));
+        this.maxBatch = Math.max(maxBatch, 1);
+
+        Path parent = path.getParent();
+        if (parent != null && !Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+        open();
+
+        this.committer = new Thread(this::commitLoop, "journal-committer-" + path.getFileName());
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Append one record and wait until it is durable on disk
+     * @param record Record text, must not contain line breaks
+     * @throws IOException if the write or fsync fails
+     */
+    public void append(String record) throws IOException {
+        await(appendAsync(record));
+    }
+
+    /**
+     * Queue one record for the next group commit
+     * @param record Record text, must not contain line breaks
+     * @return future completed once the record's batch has been written and fsynced
+     */
+    public CompletableFuture<Void> appendAsync(String record) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (queueLock) {
+            if (closed) {
+                future.completeExceptionally(new IOException("Journal is closed: " + path));
+                return future;
+            }
+            pending.add(new PendingRecord(record, future));
+            if (pending.size() == 1 || pending.size() >= maxBatch) {
+                queueLock.notifyAll();
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Queue several records so they land in the same commit, in order
+     * @return future completed once every record is durable
+     */
+    public CompletableFuture<Void> appendAllAsync(List<String> records) {
+        if (records.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> last = null;
+        synchronized (queueLock) {
+            for (String record : records) {
+                last = appendAsync(record);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Block until a commit future completes, unwrapping its failure
+     * @throws IOException if the commit failed
+     */
+    public static void await(CompletableFuture<Void> commit) throws IOException {
+        try {
+            commit.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for journal commit");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Journal commit failed", cause);
+        }
+    }
+
+    /**
+     * Move the current journal aside and start a fresh, empty one.
+     * Records still queued are committed to the new journal. If the target already exists
+     * (an earlier rotation whose records were never folded into a snapshot), the current
+     * records are appended to it instead of replacing it. A crash between that append and
+     * the truncate leaves the records in both files, which replays to the same state.
+     * @param target Where to move the current journal
+     * @throws IOException if the move, append or reopen fails
+     */
+    public void rotate(String target) throws IOException {
+        Path destination = Paths.get(target);
+        synchronized (channelLock) {
+            if (Files.exists(destination)) {
+                appendTo(destination);
+                channel.truncate(0);
+                channel.force(true);
+                recordCount = 0;
+            } else {
+                channel.close();
+                Files.move(path, destination, StandardCopyOption.ATOMIC_MOVE);
+                open();
+            }
+        }
+    }
+
+    /**
+     * Number of records committed since the journal was opened or last rotated
+     */
+    public long getRecordCount() {
+        synchronized (channelLock) {
+            return recordCount;
+        }
+    }
+
+    public String getFilename() {
+        return path.toString();
+    }
+
+    /**
+     * Commit anything still queued, then close the file
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (queueLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queueLock.notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (channelLock) {
+            if (channel.isOpen()) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Background loop: wait for records, linger for the commit window, write + fsync the batch
+     */
+    private void commitLoop() {
+        while (true) {
+            List<PendingRecord> batch;
+            synchronized (queueLock) {
+                try {
+                    while (pending.isEmpty() && !closed) {
+                        queueLock.wait();
+                    }
+                    long deadline = System.nanoTime() + windowNanos;
+                    long remaining;
+                    while (!closed && pending.size() < maxBatch
+                            && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(queueLock, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    closed = true;
+                }
+                if (pending.isEmpty()) {
+                    return; // closed and fully drained
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+            commit(batch);
+        }
+    }
+
+    private void commit(List<PendingRecord> batch) {
+        StringBuilder text = new StringBuilder(batch.size() * 128);
+        for (PendingRecord record : batch) {
+            text.append(record.text).append('\n');
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(text.toString());
+
+        IOException failure = null;
+        synchronized (channelLock) {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                recordCount += batch.size();
+            } catch (IOException e) {
+                System.err.println("Error committing journal " + path + ": " + e.getMessage());
+                failure = e;
+            }
+        }
+
+        for (PendingRecord record : batch) {
+            if (failure == null) {
+                record.future.complete(null);
+            } else {
+                record.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Copy this journal's committed records onto the end of another journal file and fsync it
+     */
+    private void appendTo(Path destination) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(destination, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = out.size();
+            // A torn last line from a crash must not swallow the first appended record
+            ByteBuffer last = ByteBuffer.allocate(1);
+            if (position > 0 && out.read(last, position - 1) == 1 && last.get(0) != '\n') {
+                position += out.write(ByteBuffer.wrap(new byte[] {'\n'}), position);
+            }
+            long size = in.size();
+            long copied = 0;
+            while (copied < size) {
+                long transferred = out.transferFrom(in, position + copied, size - copied);
+                if (transferred <= 0) {
+                    throw new IOException("Short copy of " + path + " to " + destination);
+                }
+                copied += transferred;
+            }
+            out.force(false);
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        recordCount = 0;
+    }
+
+    private static class PendingRecord {
+        final String text;
+        final CompletableFuture<Void> future;
+
+        PendingRecord(String text, CompletableFuture<Void> future) {
+            this.text = text;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * JsonWriter - Hand-written streaming JSON encoder
+ * Encodes straight to UTF-8 bytes in a pooled buffer: no String.format, no intermediate
+ * Strings, and date-times are written digit by digit in ISO-8601 (same output as
+ * DateTimeFormatter.ISO_LOCAL_DATE_TIME). Escaping follows RFC 8259.
+ *
+ * Usage: try (JsonWriter json = JsonWriter.acquire()) { ...; return json.toString(); }
+ * Instances are not thread-safe; each one is used by a single request at a time.
+ */
+public final class JsonWriter implements AutoCloseable {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+    private static final int MAX_POOL_SIZE = 256;
+    private static final int FLUSH_THRESHOLD = 8 * 1024;
+    private static final int MAX_DEPTH = 64;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private static final ConcurrentLinkedQueue<byte[]> BUFFER_POOL = new ConcurrentLinkedQueue<>();
+
+    private byte[] buffer;
+    private int length;
+    private OutputStream sink;
+
+    // One bit per nesting level: set once the container has its first element
+    private long hasElements;
+    private int depth;
+    private boolean afterName;
+
+    // Cache of the last encoded date ("yyyy-MM-dd"); tasks often share due/created dates
+    private long cachedEpochDay = Long.MIN_VALUE;
+    private final byte[] cachedDate = new byte[10];
+
+    private JsonWriter(byte[] buffer, OutputStream sink) {
+        this.buffer = buffer;
+        this.sink = sink;
+    }
+
+    /**
+     * Get a writer backed by a pooled buffer; close() returns the buffer to the pool
+     */
+    public static JsonWriter acquire() {
+        return acquire(null);
+    }
+
+    /**
+     * Get a writer that flushes to an output stream whenever its buffer fills
+     * @param sink Stream to flush to (not closed by this writer)
+     */
+    public static JsonWriter acquire(OutputStream sink) {
+        byte[] pooled = BUFFER_POOL.poll();
+        return new JsonWriter(pooled != null ? pooled : new byte[INITIAL_CAPACITY], sink);
+    }
+
+    // Structure
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        writeByte('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        pop();
+        writeByte('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        writeByte('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        pop();
+        writeByte(']');
+        return this;
+    }
+
+    /**
+     * Write an object member name; the next call must write its value
+     */
+    public JsonWriter name(String name) {
+        beforeValue();
+        writeQuoted(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    // Values
+
+    public JsonWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            writeBytes(NULL);
+        } else {
+            writeQuoted(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    /**
+     * Write a date-time as an ISO-8601 string, or null
+     */
+    public JsonWriter value(LocalDateTime value) {
+        beforeValue();
+        if (value == null) {
+            writeBytes(NULL);
+        } else {
+            writeByte('"');
+            writeDateTime(value);
+            writeByte('"');
+        }
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        beforeValue();
+        writeBytes(NULL);
+        return this;
+    }
+
+    /**
+     * Write pre-encoded JSON verbatim (caller guarantees it is valid)
+     */
+    public JsonWriter rawValue(String json) {
+        beforeValue();
+        writeString(json);
+        return this;
+    }
+
+    // Output
+
+    /**
+     * Number of buffered bytes not yet flushed
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Copy the buffered bytes to a stream
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    /**
+     * Push buffered bytes to the sink, if this writer has one
+     */
+    public void flush() throws IOException {
+        if (sink != null && length > 0) {
+            sink.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Flush to the sink (if any) and return the buffer to the pool
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            byte[] released = buffer;
+            buffer = null;
+            if (released != null && released.length <= MAX_POOLED_CAPACITY && BUFFER_POOL.size() < MAX_POOL_SIZE) {
+                BUFFER_POOL.offer(released);
+            }
+        }
+    }
+
+    /**
+     * Encode a single string as a quoted JSON literal
+     */
+    public static String quote(String value) {
+        try (JsonWriter json = acquire()) {
+            return json.value(value).toString();
+        }
+    }
+
+    // Internals
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            long bit = 1L << (depth - 1);
+            if ((hasElements & bit) != 0) {
+                writeByte(',');
+            } else {
+                hasElements |= bit;
+            }
+        }
+    }
+
+    private void push() {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nesting too deep");
+        }
+        depth++;
+        hasElements &= ~(1L << (depth - 1));
+    }
+
+    private void pop() {
+        if (depth == 0) {
+            throw new IllegalStateException("No open JSON container");
+        }
+        depth--;
+    }
+
+    private void writeQuoted(String value) {
+        writeByte('"');
+        int len = value.length();
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    writeByte(c);
+                } else {
+                    writeEscaped(c);
+                }
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                buffer[length++] = (byte) (0xC0 | (c >> 6));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensureCapacity(4);
+                buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c) || c == 0x2028 || c == 0x2029) {
+                // Lone surrogates aren't encodable in UTF-8; line/paragraph separators break JS parsers
+                writeUnicodeEscape(c);
+            } else {
+                ensureCapacity(3);
+                buffer[length++] = (byte) (0xE0 | (c >> 12));
+                buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeEscaped(char c) {
+        switch (c) {
+            case '"': writeByte('\\'); writeByte('"'); break;
+            case '\\': writeByte('\\'); writeByte('\\'); break;
+            case '\n': writeByte('\\'); writeByte('n'); break;
+            case '\r': writeByte('\\'); writeByte('r'); break;
+            case '\t': writeByte('\\'); writeByte('t'); break;
+            case '\b': writeByte('\\'); writeByte('b'); break;
+            case '\f': writeByte('\\'); writeByte('f'); break;
+            default: writeUnicodeEscape(c);
+        }
+    }
+
+    private void writeUnicodeEscape(char c) {
+        ensureCapacity(6);
+        buffer[length++] = '\\';
+        buffer[length++] = 'u';
+        buffer[length++] = HEX[(c >> 12) & 0xF];
+        buffer[length++] = HEX[(c >> 8) & 0xF];
+        buffer[length++] = HEX[(c >> 4) & 0xF];
+        buffer[length++] = HEX[c & 0xF];
+    }
+
+    /**
+     * Same text as ISO_LOCAL_DATE_TIME: seconds always, fraction only when non-zero,
+     * with trailing zeros trimmed
+     */
+    private void writeDateTime(LocalDateTime value) {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+
+        long epochDay = value.toLocalDate().toEpochDay();
+        if (epochDay != cachedEpochDay) {
+            putDigits(cachedDate, 0, year, 4);
+            cachedDate[4] = '-';
+            putDigits(cachedDate, 5, value.getMonthValue(), 2);
+            cachedDate[7] = '-';
+            putDigits(cachedDate, 8, value.getDayOfMonth(), 2);
+            cachedEpochDay = epochDay;
+        }
+
+        ensureCapacity(29);
+        System.arraycopy(cachedDate, 0, buffer, length, cachedDate.length);
+        length += cachedDate.length;
+        buffer[length++] = 'T';
+        putDigits(buffer, length, value.getHour(), 2);
+        buffer[length + 2] = ':';
+        putDigits(buffer, length + 3, value.getMinute(), 2);
+        buffer[length + 5] = ':';
+        putDigits(buffer, length + 6, value.getSecond(), 2);
+        length += 8;
+
+        int nano = value.getNano();
+        if (nano > 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buffer[length++] = '.';
+            putDigits(buffer, length, nano, digits);
+            length += digits;
+        }
+    }
+
+    private static void putDigits(byte[] target, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeString("-9223372036854775808");
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private void writeString(String ascii) {
+        byte[] bytes = ascii.getBytes(StandardCharsets.UTF_8);
+        writeBytes(bytes);
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) b;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra <= buffer.length) {
+            return;
+        }
+        if (sink != null && length >= FLUSH_THRESHOLD) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (extra <= buffer.length) {
+                return;
+            }
+        }
+        byte[] grown = new byte[Math.max(buffer.length * 2, length + extra)];
+        System.arraycopy(buffer, 0, grown, 0, length);
+        buffer = grown;
+    }
+}
@@ -0,0 +1,475 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * RoaringBitmap - Compressed set of non-negative ints with fast AND / OR / AND-NOT
+ * Values are split by their high 16 bits into chunks of 65536; each chunk is stored as
+ * a sorted char array while it holds at most 4096 values (2 bytes per value) and as a
+ * 1024-word bitmap above that (8 KB flat), whichever is smaller. A sparse set such as
+ * one student's tasks therefore costs about 2 bytes per member, while a dense set such
+ * as "all pending tasks" costs 1 bit per possible value.
+ *
+ * Set operations return new bitmaps and never modify their inputs. Not thread-safe.
+ */
+public class RoaringBitmap {
+    // Array containers convert to bitmaps above this cardinality (where both use 8 KB)
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    // Sorted high-16-bit keys and their containers; only the first size entries are used
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this(4);
+    }
+
+    private RoaringBitmap(int capacity) {
+        this.keys = new char[capacity];
+        this.containers = new Container[capacity];
+    }
+
+    public void add(int value) {
+        char high = (char) (value >>> 16);
+        int i = indexOf(high);
+        if (i >= 0) {
+            containers[i] = containers[i].add((char) value);
+        } else {
+            ArrayContainer container = new ArrayContainer(4);
+            container.add((char) value);
+            insertAt(-i - 1, high, container);
+        }
+    }
+
+    public void remove(int value) {
+        int i = indexOf((char) (value >>> 16));
+        if (i >= 0) {
+            Container container = containers[i].remove((char) value);
+            if (container.cardinality() == 0) {
+                removeAt(i);
+            } else {
+                containers[i] = container;
+            }
+        }
+    }
+
+    public boolean contains(int value) {
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Values in both bitmaps
+     */
+    public RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, Math.min(size, other.size)));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Values in either bitmap
+     */
+    public RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, size + other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Values in this bitmap but not the other
+     */
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap(Math.max(1, size));
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visit every value in ascending order
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * All values in ascending order, for callers that loop over them with plain indexing
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count = containers[i].fill(keys[i] << 16, result, count);
+        }
+        return result;
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertAt(int index, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    /**
+     * Append a container whose key is greater than every existing key
+     */
+    private void appendIfNotEmpty(char high, Container container) {
+        if (container.cardinality() > 0) {
+            insertAt(size, high, container);
+        }
+    }
+
+    // Containers: the low 16 bits of the values in one chunk
+
+    private abstract static class Container {
+        abstract int cardinality();
+        abstract boolean contains(char value);
+        abstract Container add(char value);
+        abstract Container remove(char value);
+        abstract Container copy();
+        abstract Container and(Container other);
+        abstract Container or(Container other);
+        abstract Container andNot(Container other);
+        abstract void forEach(int base, IntConsumer consumer);
+        // Writes base | value for each value into out from offset; returns the offset after them
+        abstract int fill(int base, int[] out, int offset);
+        abstract BitmapContainer toBitmap();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer(int capacity) {
+            this.values = new char[capacity];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            if (cardinality + that.cardinality > ARRAY_MAX) {
+                return toBitmap().or(that);
+            }
+            // Sorted merge
+            char[] result = new char[cardinality + that.cardinality];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < cardinality || j < that.cardinality) {
+                if (j == that.cardinality || (i < cardinality && values[i] < that.values[j])) {
+                    result[n++] = values[i++];
+                } else if (i == cardinality || values[i] > that.values[j]) {
+                    result[n++] = that.values[j++];
+                } else {
+                    result[n++] = values[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        int fill(int base, int[] out, int offset) {
+            for (int i = 0; i < cardinality; i++) {
+                out[offset + i] = base | values[i];
+            }
+            return offset + cardinality;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS], 0);
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            long after = before & ~(1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality--;
+                if (cardinality <= ARRAY_MAX) {
+                    return toArray();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] that = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & that[i];
+                count += Long.bitCount(result[i]);
+            }
+            return fromWords(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] that = other.toBitmap().words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] | that[i];
+                count += Long.bitCount(result[i]);
+            }
+            return new BitmapContainer(result, count);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] that = other.toBitmap().words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & ~that[i];
+                count += Long.bitCount(result[i]);
+            }
+            return fromWords(result, count);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        int fill(int base, int[] out, int offset) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    out[offset++] = base | (i << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+
+        private static Container fromWords(long[] words, int cardinality) {
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            return cardinality <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package web;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoginRateLimiter - Per-client-address token buckets for login attempts
+ * Each address may burst up to a fixed number of attempts, refilled at a steady rate.
+ * Buckets that have refilled completely carry no state worth keeping, so once the table
+ * reaches its bound they are swept, at most once per refill period (an address idle that
+ * long is full again). While the table is still full of active buckets, attempts from
+ * addresses it doesn't know are refused until the next sweep rather than evicting a
+ * bucket, which would hand its address a fresh burst.
+ */
+public class LoginRateLimiter {
+    private final double burst;
+    private final double tokensPerMilli;
+    private final int maxTracked;
+    private final long sweepIntervalMillis;
+    private final AtomicLong nextSweepAt = new AtomicLong();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public LoginRateLimiter() {
+        this(Integer.getInteger("smarttask.auth.loginBurst", 10),
+                Integer.getInteger("smarttask.auth.loginsPerMinute", 20),
+                Integer.getInteger("smarttask.auth.maxTrackedClients", 100_000));
+    }
+
+    /**
+     * @param burst Attempts allowed back to back
+     * @param perMinute Sustained attempts per minute
+     * @param maxTracked Addresses tracked before idle buckets are swept and new addresses refused
+     */
+    public LoginRateLimiter(int burst, int perMinute, int maxTracked) {
+        this.burst = burst;
+        this.tokensPerMilli = perMinute / 60_000.0;
+        this.maxTracked = maxTracked;
+        this.sweepIntervalMillis = Math.max(1_000, (long) Math.ceil(burst / tokensPerMilli));
+    }
+
+    /**
+     * Take one attempt from an address's bucket
+     * @return 0 if allowed, otherwise milliseconds until the next attempt is allowed
+     */
+    public long tryAcquire(String address) {
+        long now = System.currentTimeMillis();
+        Bucket bucket = buckets.get(address);
+        if (bucket == null) {
+            if (buckets.size() >= maxTracked) {
+                long due = nextSweepAt.get();
+                if (now >= due && nextSweepAt.compareAndSet(due, now + sweepIntervalMillis)) {
+                    sweep(now);
+                }
+                if (buckets.size() >= maxTracked) {
+                    return Math.max(1, nextSweepAt.get() - now);
+                }
+            }
+            bucket = buckets.computeIfAbsent(address, key -> new Bucket(burst, now));
+        }
+
+        synchronized (bucket) {
+            bucket.refill(now, burst, tokensPerMilli);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPerMilli);
+        }
+    }
+
+    private void sweep(long now) {
+        Iterator<Bucket> it = buckets.values().iterator();
+        while (it.hasNext()) {
+            Bucket bucket = it.next();
+            synchronized (bucket) {
+                bucket.refill(now, burst, tokensPerMilli);
+                if (bucket.tokens >= burst) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long updatedAt;
+
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+
+        void refill(long now, double burst, double tokensPerMilli) {
+            tokens = Math.min(burst, tokens + (now - updatedAt) * tokensPerMilli);
+            updatedAt = now;
+        }
+    }
+}
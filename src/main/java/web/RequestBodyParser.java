@@ -0,0 +1,390 @@
+package web;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RequestBodyParser - Incremental parser for JSON and form-urlencoded request bodies
+ * Works straight off the request InputStream through a small fixed buffer, enforces a
+ * size limit while reading, and produces typed values without first building the
+ * body as a String.
+ *
+ * JSON values map to: String, Long (integers that fit), Double, Boolean, null,
+ * List&lt;Object&gt; and Map&lt;String, Object&gt;. Form fields are always Strings.
+ */
+public class RequestBodyParser {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_DEPTH = 32;
+
+    private final InputStream in;
+    private final long maxBytes;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long consumed;
+    private final StringBuilder scratch = new StringBuilder(64);
+
+    private RequestBodyParser(InputStream in, long maxBytes) {
+        this.in = in;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Parse a request body according to its content type.
+     * JSON is used for a JSON content type or whenever the body starts with '{'
+     * (clients often post JSON with the default form content type); otherwise the
+     * body is treated as form-urlencoded.
+     * @param in Request body stream (not closed)
+     * @param contentType Content-Type header, may be null
+     * @param maxBytes Maximum body size to accept
+     * @return top-level fields; empty for an empty body
+     * @throws BodyException if the body is malformed (400) or too large (413)
+     */
+    public static Map<String, Object> parse(InputStream in, String contentType, long maxBytes) throws IOException {
+        RequestBodyParser parser = new RequestBodyParser(in, maxBytes);
+        String type = contentType != null ? contentType.toLowerCase() : "";
+
+        int first = parser.peekNonWhitespace();
+        if (first == -1) {
+            return new LinkedHashMap<>();
+        }
+        if (first != '{' && !type.contains("json")) {
+            return new LinkedHashMap<>(parser.parseForm());
+        }
+
+        Object value = parser.parseValue(0);
+        if (parser.peekNonWhitespace() != -1) {
+            throw new BodyException(400, "Unexpected data after JSON value");
+        }
+        if (!(value instanceof Map)) {
+            throw new BodyException(400, "Request body must be a JSON object");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object = (Map<String, Object>) value;
+        return object;
+    }
+
+    /**
+     * Decode an application/x-www-form-urlencoded string (e.g. a raw query string)
+     * @throws BodyException (400) on malformed percent-encoding
+     */
+    public static Map<String, String> parseForm(String encoded) throws BodyException {
+        if (encoded == null || encoded.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            byte[] bytes = encoded.getBytes(StandardCharsets.UTF_8);
+            return new RequestBodyParser(new ByteArrayInputStream(bytes), bytes.length).parseForm();
+        } catch (BodyException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // reading in-memory input cannot fail
+        }
+    }
+
+    // Form-urlencoded
+
+    private Map<String, String> parseForm() throws IOException {
+        Map<String, String> fields = new LinkedHashMap<>();
+        ByteArrayOutputStream token = new ByteArrayOutputStream(64);
+        String key = null;
+        while (true) {
+            int b = read();
+            if (b == -1 || b == '&') {
+                String text = token.toString(StandardCharsets.UTF_8);
+                if (key != null) {
+                    fields.put(key, text);
+                } else if (!text.isEmpty()) {
+                    fields.put(text, "");
+                }
+                if (b == -1) {
+                    return fields;
+                }
+                key = null;
+                token.reset();
+            } else if (b == '=' && key == null) {
+                key = token.toString(StandardCharsets.UTF_8);
+                token.reset();
+            } else if (b == '+') {
+                token.write(' ');
+            } else if (b == '%') {
+                int high = hexValue(read());
+                int low = hexValue(read());
+                if (high < 0 || low < 0) {
+                    throw new BodyException(400, "Malformed percent-encoding");
+                }
+                token.write((high << 4) | low);
+            } else if (b != '\r' && b != '\n') {
+                token.write(b);
+            }
+        }
+    }
+
+    // JSON
+
+    private Object parseValue(int depth) throws IOException {
+        int b = peekNonWhitespace();
+        switch (b) {
+            case '{': return parseObject(depth + 1);
+            case '[': return parseArray(depth + 1);
+            case '"': read(); return parseString();
+            case 't': expectLiteral("true"); return Boolean.TRUE;
+            case 'f': expectLiteral("false"); return Boolean.FALSE;
+            case 'n': expectLiteral("null"); return null;
+            case -1: throw new BodyException(400, "Unexpected end of JSON");
+            default:
+                if (b == '-' || (b >= '0' && b <= '9')) {
+                    return parseNumber();
+                }
+                throw new BodyException(400, "Unexpected character in JSON: " + (char) b);
+        }
+    }
+
+    private Map<String, Object> parseObject(int depth) throws IOException {
+        checkDepth(depth);
+        read(); // '{'
+        Map<String, Object> object = new LinkedHashMap<>();
+        if (peekNonWhitespace() == '}') {
+            read();
+            return object;
+        }
+        while (true) {
+            if (peekNonWhitespace() != '"') {
+                throw new BodyException(400, "Expected string key in JSON object");
+            }
+            read();
+            String key = parseString();
+            if (peekNonWhitespace() != ':') {
+                throw new BodyException(400, "Expected ':' after key \"" + key + "\"");
+            }
+            read();
+            object.put(key, parseValue(depth));
+            int next = peekNonWhitespace();
+            read();
+            if (next == '}') {
+                return object;
+            }
+            if (next != ',') {
+                throw new BodyException(400, "Expected ',' or '}' in JSON object");
+            }
+        }
+    }
+
+    private List<Object> parseArray(int depth) throws IOException {
+        checkDepth(depth);
+        read(); // '['
+        List<Object> array = new ArrayList<>();
+        if (peekNonWhitespace() == ']') {
+            read();
+            return array;
+        }
+        while (true) {
+            array.add(parseValue(depth));
+            int next = peekNonWhitespace();
+            read();
+            if (next == ']') {
+                return array;
+            }
+            if (next != ',') {
+                throw new BodyException(400, "Expected ',' or ']' in JSON array");
+            }
+        }
+    }
+
+    /**
+     * Parse a string whose opening quote has been consumed, decoding UTF-8 as it goes
+     */
+    private String parseString() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            int b = read();
+            if (b == -1) {
+                throw new BodyException(400, "Unterminated JSON string");
+            }
+            if (b == '"') {
+                return scratch.toString();
+            }
+            if (b == '\\') {
+                parseEscape();
+            } else if (b < 0x80) {
+                if (b < 0x20) {
+                    throw new BodyException(400, "Control character in JSON string");
+                }
+                scratch.append((char) b);
+            } else {
+                decodeUtf8(b);
+            }
+        }
+    }
+
+    private void parseEscape() throws IOException {
+        int b = read();
+        switch (b) {
+            case '"': scratch.append('"'); break;
+            case '\\': scratch.append('\\'); break;
+            case '/': scratch.append('/'); break;
+            case 'b': scratch.append('\b'); break;
+            case 'f': scratch.append('\f'); break;
+            case 'n': scratch.append('\n'); break;
+            case 'r': scratch.append('\r'); break;
+            case 't': scratch.append('\t'); break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = hexValue(read());
+                    if (digit < 0) {
+                        throw new BodyException(400, "Malformed \\u escape in JSON string");
+                    }
+                    code = (code << 4) | digit;
+                }
+                scratch.append((char) code);
+                break;
+            default:
+                throw new BodyException(400, "Invalid escape in JSON string");
+        }
+    }
+
+    private void decodeUtf8(int lead) throws IOException {
+        int extra;
+        int codePoint;
+        if ((lead & 0xE0) == 0xC0) {
+            extra = 1;
+            codePoint = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            extra = 2;
+            codePoint = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            extra = 3;
+            codePoint = lead & 0x07;
+        } else {
+            scratch.append('\uFFFD');
+            return;
+        }
+        for (int i = 0; i < extra; i++) {
+            int next = peek();
+            if (next == -1 || (next & 0xC0) != 0x80) {
+                scratch.append('\uFFFD');
+                return;
+            }
+            read();
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        if (codePoint > Character.MAX_CODE_POINT) {
+            scratch.append('\uFFFD');
+        } else {
+            scratch.appendCodePoint(codePoint);
+        }
+    }
+
+    private Object parseNumber() throws IOException {
+        scratch.setLength(0);
+        boolean integral = true;
+        while (true) {
+            int b = peek();
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+') {
+                scratch.append((char) read());
+            } else if (b == '.' || b == 'e' || b == 'E') {
+                integral = false;
+                scratch.append((char) read());
+            } else {
+                break;
+            }
+        }
+        String text = scratch.toString();
+        try {
+            if (integral && text.length() < 19) {
+                return Long.parseLong(text);
+            }
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new BodyException(400, "Malformed JSON number: " + text);
+        }
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw new BodyException(400, "Malformed JSON literal, expected " + literal);
+            }
+        }
+    }
+
+    private void checkDepth(int depth) throws BodyException {
+        if (depth > MAX_DEPTH) {
+            throw new BodyException(400, "JSON nested too deeply");
+        }
+    }
+
+    // Byte input
+
+    private int peekNonWhitespace() throws IOException {
+        while (true) {
+            int b = peek();
+            if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                read();
+            } else {
+                return b;
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        consumed += count;
+        if (consumed > maxBytes) {
+            throw new BodyException(413, "Request body exceeds " + maxBytes + " bytes");
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    private static int hexValue(int b) {
+        if (b >= '0' && b <= '9') return b - '0';
+        if (b >= 'a' && b <= 'f') return b - 'a' + 10;
+        if (b >= 'A' && b <= 'F') return b - 'A' + 10;
+        return -1;
+    }
+
+    /**
+     * Malformed or oversized request body, carrying the HTTP status to answer with
+     */
+    public static class BodyException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statusCode;
+
+        public BodyException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
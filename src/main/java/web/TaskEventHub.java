@@ -0,0 +1,289 @@
+package web;
+
+import com.sun.net.httpserver.HttpExchange;
+import models.Task;
+import models.TaskListener;
+import models.TaskManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TaskEventHub - Server-Sent Events fan-out of task changes, per student
+ * A subscribed connection holds no thread while idle: the handler sends the headers,
+ * registers the open exchange here and returns. Events are queued per connection and
+ * written by a virtual thread started for that connection's drain (at most one at a
+ * time), so a client that stops reading only parks its own writer. A client that falls
+ * too far behind, or whose write stays blocked past the write timeout, is disconnected
+ * (EventSource reconnects and the page reloads its tasks); the timeout interrupts the
+ * blocked socket write, which closes the connection.
+ *
+ * Listeners run after the task lock is released, so a change and a delete of the same
+ * task can be reported out of order. Events for one student are published under a
+ * per-student lock, and a task event is dropped if the task is no longer the live one,
+ * so a client never receives an update after the task's "deleted".
+ *
+ * Events: added, updated, completed (data: the task), deleted (data: {"id":n}) and
+ * stats (data: the student's TaskStats), sent after every change.
+ */
+public class TaskEventHub implements TaskListener {
+    private static final int MAX_CONNECTIONS = Integer.getInteger("smarttask.events.maxConnections", 10_000);
+    private static final int MAX_QUEUED_EVENTS = Integer.getInteger("smarttask.events.maxQueued", 256);
+    private static final long WRITE_TIMEOUT_MILLIS = Long.getLong("smarttask.events.writeTimeoutMillis", 10_000);
+    private static final long HEARTBEAT_SECONDS = Long.getLong("smarttask.events.heartbeatSeconds", 15);
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final int PUBLISH_LOCK_STRIPES = 64;
+
+    private final TaskManager taskManager;
+    // Normalized email -> open connections for that student
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    // Serializes publishing per student so events reach each queue in change order
+    private final Object[] publishLocks = new Object[PUBLISH_LOCK_STRIPES];
+
+    private final ExecutorService writers;
+    private final ScheduledExecutorService heartbeat;
+
+    public TaskEventHub(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        for (int i = 0; i < publishLocks.length; i++) {
+            publishLocks[i] = new Object();
+        }
+        this.writers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-writer-", 1).factory());
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        long checkMillis = Math.max(100, Math.min(1000, WRITE_TIMEOUT_MILLIS / 2));
+        heartbeat.scheduleAtFixedRate(this::interruptStalledWrites, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start streaming events to an exchange; returns without blocking
+     * @return false if the connection limit is reached (caller answers 503)
+     */
+    public boolean subscribe(HttpExchange exchange, String email) throws IOException {
+        if (connectionCount.incrementAndGet() > MAX_CONNECTIONS) {
+            connectionCount.decrementAndGet();
+            return false;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        Subscriber subscriber = new Subscriber(normalize(email), exchange);
+        subscribers.computeIfAbsent(subscriber.email, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        enqueue(subscriber, ("retry: 3000\n\n" + frame("stats", statsJson(email))).getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Close every connection and stop the writer threads
+     */
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        for (Set<Subscriber> group : subscribers.values()) {
+            for (Subscriber subscriber : group) {
+                close(subscriber);
+            }
+        }
+        writers.shutdown();
+    }
+
+    // TaskListener
+
+    @Override
+    public void taskAdded(Task task) {
+        publishTask("added", task);
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        publishTask(task.isCompleted() ? "completed" : "updated", task);
+    }
+
+    @Override
+    public void taskDeleted(Task task) {
+        String email = normalize(task.getStudentEmail());
+        if (subscribers.containsKey(email)) {
+            synchronized (publishLockFor(email)) {
+                publish(email, frame("deleted", "{\"id\":" + task.getId() + "}")
+                        + frame("stats", statsJson(task.getStudentEmail())));
+            }
+        }
+    }
+
+    // Publishing
+
+    private void publishTask(String event, Task task) {
+        String email = normalize(task.getStudentEmail());
+        if (subscribers.containsKey(email)) {
+            synchronized (publishLockFor(email)) {
+                // Already deleted or replaced: the delete's or the newer version's event is published instead
+                if (taskManager.getTaskById(task.getId()) != task) {
+                    return;
+                }
+                publish(email, frame(event, task.toJson()) + frame("stats", statsJson(task.getStudentEmail())));
+            }
+        }
+    }
+
+    private Object publishLockFor(String email) {
+        return publishLocks[Math.floorMod(email.hashCode(), publishLocks.length)];
+    }
+
+    private void publish(String email, String frames) {
+        Set<Subscriber> group = subscribers.get(email);
+        if (group == null) {
+            return;
+        }
+        byte[] bytes = frames.getBytes(StandardCharsets.UTF_8);
+        for (Subscriber subscriber : group) {
+            enqueue(subscriber, bytes);
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Set<Subscriber> group : subscribers.values()) {
+            for (Subscriber subscriber : group) {
+                enqueue(subscriber, HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * Interrupt writes blocked for longer than the write timeout; the interrupt closes the
+     * socket channel, the write fails and the drain closes the subscriber
+     */
+    private void interruptStalledWrites() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> group : subscribers.values()) {
+            for (Subscriber subscriber : group) {
+                Thread writer = subscriber.writer;
+                long started = subscriber.writeStartedNanos;
+                if (writer != null && now - started > TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT_MILLIS)) {
+                    writer.interrupt();
+                }
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, byte[] bytes) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (subscriber.queued.incrementAndGet() > MAX_QUEUED_EVENTS) {
+            close(subscriber); // too far behind; the client resyncs on reconnect
+            return;
+        }
+        subscriber.queue.add(bytes);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                close(subscriber); // shutting down
+            }
+        }
+    }
+
+    /**
+     * Write everything queued for one connection; only one drain runs per connection
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                byte[] bytes;
+                while ((bytes = subscriber.queue.poll()) != null) {
+                    subscriber.queued.decrementAndGet();
+                    startWrite(subscriber);
+                    subscriber.out.write(bytes);
+                }
+                startWrite(subscriber);
+                subscriber.out.flush();
+                subscriber.writer = null;
+                subscriber.draining.set(false);
+            } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException e) {
+            subscriber.writer = null;
+            close(subscriber); // client went away or stopped reading
+        }
+    }
+
+    /**
+     * Mark the current thread as writing for the stall watchdog
+     */
+    private static void startWrite(Subscriber subscriber) {
+        subscriber.writeStartedNanos = System.nanoTime();
+        subscriber.writer = Thread.currentThread();
+    }
+
+    private void close(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return;
+            }
+            subscriber.closed = true;
+        }
+        subscribers.computeIfPresent(subscriber.email, (key, group) -> {
+            group.remove(subscriber);
+            return group.isEmpty() ? null : group;
+        });
+        connectionCount.decrementAndGet();
+        subscriber.exchange.close();
+    }
+
+    // Formatting
+
+    private String statsJson(String email) {
+        return taskManager.getTaskStats(email).toJson();
+    }
+
+    private static String frame(String event, String json) {
+        return "event: " + event + "\ndata: " + json + "\n\n";
+    }
+
+    private static String normalize(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * One open event stream
+     */
+    private static final class Subscriber {
+        final String email;
+        final HttpExchange exchange;
+        final OutputStream out;
+        final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        // Thread inside a write and when that write started, for the write timeout
+        volatile Thread writer;
+        volatile long writeStartedNanos;
+
+        Subscriber(String email, HttpExchange exchange) {
+            this.email = email;
+            this.exchange = exchange;
+            this.out = exchange.getResponseBody();
+        }
+    }
+}
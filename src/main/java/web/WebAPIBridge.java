@@ -2,55 +2,186 @@ package web;
 
 import models.*;
 import auth.AuthManager;
+import auth.PasswordHasher;
+import auth.SessionManager;
+import scheduler.ReminderScheduler;
+import utils.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import java.io.*;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * WebAPIBridge - HTTP Server to connect Java backend with HTML frontend
  */
 public class WebAPIBridge {
+    // Execution model: "virtual" (one virtual thread per request) or "platform" (bounded pool)
+    private static final String EXECUTOR_MODE = System.getProperty("smarttask.http.executor", "virtual");
+    private static final int PLATFORM_THREADS = Integer.getInteger("smarttask.http.threads",
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 4));
+    private static final int PLATFORM_QUEUE = Integer.getInteger("smarttask.http.queue", 1024);
+    private static final int BACKLOG = Integer.getInteger("smarttask.http.backlog", 256);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final long MAX_BODY_BYTES = Long.getLong("smarttask.http.maxBodyBytes", 1024 * 1024);
+    // Development only: let task endpoints trust a claimed ?email= when no session token is sent
+    private static final boolean TRUST_CLAIMED_EMAIL = Boolean.getBoolean("smarttask.dev.trustClaimedEmail");
+    private static final int MAX_BATCH_OPERATIONS = Integer.getInteger("smarttask.batch.maxOperations", 500);
+    private static final boolean REMINDERS_ENABLED =
+            Boolean.parseBoolean(System.getProperty("smarttask.reminders.enabled", "true"));
+    private static final boolean ANALYTICS_ENABLED =
+            Boolean.parseBoolean(System.getProperty("smarttask.analytics.enabled", "true"));
+    private static final int DEFAULT_ANALYTICS_DAYS = 30;
+    private static final int MAX_ANALYTICS_DAYS = 366;
+    private static final boolean QUERY_ENABLED =
+            Boolean.parseBoolean(System.getProperty("smarttask.query.enabled", "true"));
+
     private HttpServer server;
+    private ExecutorService executor;
     private AuthManager authManager;
+    private SessionManager sessionManager;
+    private final LoginRateLimiter loginRateLimiter = new LoginRateLimiter();
     private TaskManager taskManager;
+    private ReminderScheduler reminderScheduler;
+    private TaskEventHub eventHub;
+    private TaskColumnStore analytics;
+    private TaskBitmapIndex taskIndex;
 
     public WebAPIBridge(int port) throws IOException {
+        this(port, BACKLOG);
+    }
+
+    /**
+     * @param port Port to listen on
+     * @param backlog Maximum queued incoming connections (0 uses the system default)
+     */
+    public WebAPIBridge(int port, int backlog) throws IOException {
         this.authManager = new AuthManager();
+        this.sessionManager = new SessionManager();
         this.taskManager = new TaskManager();
-        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.eventHub = new TaskEventHub(taskManager);
+        taskManager.addTaskListener(eventHub);
+        this.server = HttpServer.create(new InetSocketAddress(port), backlog);
         setupRoutes();
     }
 
     private void setupRoutes() {
         // API routes
-        server.createContext("/api/login", new LoginHandler());
-        server.createContext("/api/register", new RegisterHandler());
-        server.createContext("/api/tasks", new TaskHandler());
-        server.createContext("/api/tasks/add", new AddTaskHandler());
-        server.createContext("/api/tasks/complete", new CompleteTaskHandler());
-        server.createContext("/api/tasks/delete", new DeleteTaskHandler());
-        server.createContext("/api/stats", new StatsHandler());
+        server.createContext("/api/login", guarded(new LoginHandler()));
+        server.createContext("/api/register", guarded(new RegisterHandler()));
+        server.createContext("/api/logout", guarded(new LogoutHandler()));
+        server.createContext("/api/tasks", guarded(new TaskHandler()));
+        server.createContext("/api/tasks/add", guarded(new AddTaskHandler()));
+        server.createContext("/api/tasks/complete", guarded(new CompleteTaskHandler()));
+        server.createContext("/api/tasks/delete", guarded(new DeleteTaskHandler()));
+        server.createContext("/api/tasks/search", guarded(new SearchTaskHandler()));
+        server.createContext("/api/tasks/batch", guarded(new BatchTaskHandler()));
+        server.createContext("/api/tasks/query", guarded(new QueryTaskHandler()));
+        server.createContext("/api/stats", guarded(new StatsHandler()));
+        server.createContext("/api/analytics", guarded(new AnalyticsHandler()));
+        server.createContext("/api/events", guarded(new EventsHandler()));
+        server.createContext("/api/webhooks/reminders", guarded(new ReminderWebhookHandler()));
+        server.createContext("/api/health", guarded(new HealthHandler()));
 
         // Static files
         server.createContext("/", new StaticFileHandler());
     }
 
     public void start() {
-        server.setExecutor(null);
+        if (ANALYTICS_ENABLED) {
+            analytics = new TaskColumnStore(taskManager);
+            analytics.start();
+        }
+        if (QUERY_ENABLED) {
+            taskIndex = new TaskBitmapIndex(taskManager);
+            taskIndex.start();
+        }
+        if (REMINDERS_ENABLED) {
+            try {
+                reminderScheduler = ReminderScheduler.fromSystemProperties(taskManager);
+                reminderScheduler.start();
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Reminders disabled: " + e.getMessage());
+            }
+        }
+        // Accept requests only once every optional index is ready to answer them
+        executor = createExecutor();
+        server.setExecutor(executor);
         server.start();
+        if (TRUST_CLAIMED_EMAIL) {
+            System.err.println("WARNING: smarttask.dev.trustClaimedEmail is set; requests without a session "
+                    + "token act for any email they claim. Never use this outside development.");
+        }
         System.out.println("=================================");
         System.out.println("SmartTask Web Server Started!");
         System.out.println("URL: http://localhost:8080");
         System.out.println("=================================");
     }
 
+    /**
+     * Stop accepting requests and let in-flight ones finish
+     */
+    public void stop() {
+        if (reminderScheduler != null) {
+            reminderScheduler.stop();
+        }
+        if (analytics != null) {
+            analytics.stop();
+        }
+        if (taskIndex != null) {
+            taskIndex.stop();
+        }
+        eventHub.shutdown();
+        server.stop(1);
+        if (executor != null) {
+            executor.shutdown();
+        }
+        authManager.shutdown();
+    }
+
+    /**
+     * Build the request executor so slow handlers (disk writes, password hashing)
+     * never block the HttpServer dispatcher thread
+     */
+    private ExecutorService createExecutor() {
+        if ("virtual".equalsIgnoreCase(EXECUTOR_MODE)) {
+            System.out.println("HTTP executor: virtual thread per request");
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                PLATFORM_THREADS, PLATFORM_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(PLATFORM_QUEUE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "http-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // When saturated, the dispatcher runs the request itself: natural backpressure on accept
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        System.out.println("HTTP executor: " + PLATFORM_THREADS + " platform threads");
+        return pool;
+    }
+
     // Login Handler
     class LoginHandler implements HttpHandler {
         @Override
@@ -58,17 +189,30 @@ public class WebAPIBridge {
             setCorsHeaders(exchange);
 
             if ("POST".equals(exchange.getRequestMethod())) {
+                long retryAfterMillis = loginRateLimiter.tryAcquire(
+                        exchange.getRemoteAddress().getAddress().getHostAddress());
+                if (retryAfterMillis > 0) {
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf((retryAfterMillis + 999) / 1000));
+                    sendJsonResponse(exchange, 429, "{\"success\":false,\"error\":\"Too many login attempts\"}");
+                    return;
+                }
+
                 Map<String, String> params = parseRequestBody(exchange);
                 String email = params.get("email");
                 String password = params.get("password");
 
-                Student student = authManager.login(email, password);
-                if (student != null) {
-                    String response = "{\"success\":true,\"student\":" + student.toJson() + "}";
-                    sendJsonResponse(exchange, 200, response);
-                } else {
-                    sendJsonResponse(exchange, 401, "{\"success\":false,\"error\":\"Invalid credentials\"}");
-                }
+                // Password hashing runs on its own pool; this worker is free as soon as it's queued
+                respondWhenDone(exchange, authManager.loginAsync(email, password), student -> {
+                    if (student != null) {
+                        SessionManager.Session session = sessionManager.create(student.getEmail());
+                        String response = "{\"success\":true,\"token\":" + JsonWriter.quote(session.getToken())
+                                + ",\"expiresAt\":" + session.getExpiresAt()
+                                + ",\"student\":" + student.toJson() + "}";
+                        sendJsonResponse(exchange, 200, response);
+                    } else {
+                        sendJsonResponse(exchange, 401, "{\"success\":false,\"error\":\"Invalid credentials\"}");
+                    }
+                });
             } else if ("OPTIONS".equals(exchange.getRequestMethod())) {
                 exchange.sendResponseHeaders(200, -1);
             } else {
@@ -77,6 +221,24 @@ public class WebAPIBridge {
         }
     }
 
+    // Logout Handler (POST with Authorization: Bearer <token>)
+    class LogoutHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            setCorsHeaders(exchange);
+
+            if ("POST".equals(exchange.getRequestMethod())) {
+                if (sessionManager.invalidate(bearerToken(exchange))) {
+                    sendJsonResponse(exchange, 200, "{\"success\":true,\"message\":\"Logged out\"}");
+                } else {
+                    sendJsonResponse(exchange, 401, "{\"success\":false,\"error\":\"Not logged in\"}");
+                }
+            } else if ("OPTIONS".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+            }
+        }
+    }
+
     // Register Handler
     class RegisterHandler implements HttpHandler {
         @Override
@@ -86,7 +248,7 @@ public class WebAPIBridge {
             if ("POST".equals(exchange.getRequestMethod())) {
                 Map<String, String> params = parseRequestBody(exchange);
 
-                boolean success = authManager.register(
+                CompletableFuture<Boolean> registered = authManager.registerAsync(
                         params.get("firstName"),
                         params.get("lastName"),
                         params.get("email"),
@@ -95,36 +257,32 @@ public class WebAPIBridge {
                         params.get("password")
                 );
 
-                if (success) {
-                    sendJsonResponse(exchange, 201, "{\"success\":true,\"message\":\"Registration successful\"}");
-                } else {
-                    sendJsonResponse(exchange, 400, "{\"success\":false,\"error\":\"Registration failed - email may already exist\"}");
-                }
+                respondWhenDone(exchange, registered, success -> {
+                    if (success) {
+                        sendJsonResponse(exchange, 201, "{\"success\":true,\"message\":\"Registration successful\"}");
+                    } else {
+                        sendJsonResponse(exchange, 400, "{\"success\":false,\"error\":\"Registration failed - email may already exist\"}");
+                    }
+                });
             } else if ("OPTIONS".equals(exchange.getRequestMethod())) {
                 exchange.sendResponseHeaders(200, -1);
             }
         }
     }
 
-    // Task Handler (GET all tasks)
+    // Task Handler (GET all tasks, or one page with ?limit=&cursor=&sort=due|priority|created&order=asc|desc)
     class TaskHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             setCorsHeaders(exchange);
 
             if ("GET".equals(exchange.getRequestMethod())) {
-                String email = getQueryParam(exchange, "email");
-                if (email != null) {
-                    List<Task> tasks = taskManager.getTasksByStudent(email);
-                    StringBuilder jsonResponse = new StringBuilder("[");
-                    for (int i = 0; i < tasks.size(); i++) {
-                        jsonResponse.append(tasks.get(i).toJson());
-                        if (i < tasks.size() - 1) {
-                            jsonResponse.append(",");
-                        }
-                    }
-                    jsonResponse.append("]");
-                    sendJsonResponse(exchange, 200, jsonResponse.toString());
+                Map<String, String> query = getQueryParams(exchange);
+                String email = requestEmail(exchange, query.get("email"));
+                if (email != null && isPageRequest(query)) {
+                    sendTaskPage(exchange, email, query);
+                } else if (email != null) {
+                    streamJsonArray(exchange, 200, taskManager.streamTasksByStudent(email));
                 } else {
                     sendJsonResponse(exchange, 400, "{\"error\":\"Email parameter required\"}");
                 }
@@ -132,6 +290,71 @@ public class WebAPIBridge {
         }
     }
 
+    private boolean isPageRequest(Map<String, String> query) {
+        return query.containsKey("limit") || query.containsKey("cursor") || query.containsKey("sort");
+    }
+
+    private void sendTaskPage(HttpExchange exchange, String email, Map<String, String> query) throws IOException {
+        int limit = DEFAULT_PAGE_SIZE;
+        try {
+            if (query.get("limit") != null) {
+                limit = Integer.parseInt(query.get("limit"));
+            }
+        } catch (NumberFormatException e) {
+            sendJsonResponse(exchange, 400, "{\"error\":\"limit must be a number\"}");
+            return;
+        }
+        limit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        TaskManager.TaskPage page;
+        try {
+            page = taskManager.getTaskPage(email,
+                    TaskManager.SortOrder.fromString(query.get("sort")),
+                    "desc".equalsIgnoreCase(query.get("order")),
+                    query.get("cursor"),
+                    limit);
+        } catch (IllegalArgumentException e) {
+            sendJsonResponse(exchange, 400, "{\"error\":" + JsonWriter.quote(e.getMessage()) + "}");
+            return;
+        }
+
+        try (JsonWriter json = JsonWriter.acquire()) {
+            page.writeJson(json);
+            sendJsonResponse(exchange, 200, json.toString());
+        }
+    }
+
+    // Search Handler (GET ?email=&q=&limit=, ranked matches over title and description)
+    class SearchTaskHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            setCorsHeaders(exchange);
+
+            if ("GET".equals(exchange.getRequestMethod())) {
+                Map<String, String> query = getQueryParams(exchange);
+                String email = requestEmail(exchange, query.get("email"));
+                if (email == null) {
+                    sendJsonResponse(exchange, 400, "{\"error\":\"Email parameter required\"}");
+                    return;
+                }
+
+                int limit = DEFAULT_PAGE_SIZE;
+                try {
+                    if (query.get("limit") != null) {
+                        limit = Integer.parseInt(query.get("limit"));
+                    }
+                } catch (NumberFormatException e) {
+                    sendJsonResponse(exchange, 400, "{\"error\":\"limit must be a number\"}");
+                    return;
+                }
+                limit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+                List<Task> matches = taskManager.searchTasks(email, query.get("q"), limit);
+                streamJsonArray(exchange, 200, matches.stream());
+            }
+        }
+    }
+
     // Add Task Handler
     class AddTaskHandler implements HttpHandler {
         @Override
@@ -140,17 +363,10 @@ public class WebAPIBridge {
 
             if ("POST".equals(exchange.getRequestMethod())) {
                 Map<String, String> params = parseRequestBody(exchange);
+                String studentEmail = requestEmail(exchange, params.get("studentEmail"));
 
                 try {
-                    String dueDateStr = params.get("dueDate");
-                    String dueTimeStr = params.get("dueTime");
-
-                    LocalDateTime dueDate;
-                    if (dueTimeStr != null && !dueTimeStr.isEmpty()) {
-                        dueDate = LocalDateTime.parse(dueDateStr + "T" + dueTimeStr + ":00");
-                    } else {
-                        dueDate = LocalDateTime.parse(dueDateStr + "T23:59:59");
-                    }
+                    LocalDateTime dueDate = parseDueDate(params.get("dueDate"), params.get("dueTime"));
 
                     Task newTask = taskManager.addTask(
                             params.get("title"),
@@ -158,10 +374,12 @@ public class WebAPIBridge {
                             params.get("category"),
                             Task.Priority.fromString(params.get("priority")),
                             dueDate,
-                            params.get("studentEmail")
+                            studentEmail
                     );
 
                     sendJsonResponse(exchange, 201, "{\"success\":true,\"task\":" + newTask.toJson() + "}");
+                } catch (UncheckedIOException e) {
+                    throw e; // storage failure, not a bad request: guarded() answers 503
                 } catch (Exception e) {
                     sendJsonResponse(exchange, 400, "{\"success\":false,\"error\":\"" + e.getMessage() + "\"}");
                 }
@@ -171,6 +389,199 @@ public class WebAPIBridge {
         }
     }
 
+    // Batch Handler (POST {"operations":[{"op":"add|update|complete|delete", ...}, ...]})
+    class BatchTaskHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            setCorsHeaders(exchange);
+
+            if ("POST".equals(exchange.getRequestMethod())) {
+                Map<String, Object> body = parseTypedRequestBody(exchange);
+                if (!(body.get("operations") instanceof List)) {
+                    sendJsonResponse(exchange, 400, "{\"success\":false,\"error\":\"operations array required\"}");
+                    return;
+                }
+                List<?> items = (List<?>) body.get("operations");
+                if (items.size() > MAX_BATCH_OPERATIONS) {
+                    sendJsonResponse(exchange, 400, "{\"success\":false,\"error\":\"At most "
+                            + MAX_BATCH_OPERATIONS + " operations per batch\"}");
+                    return;
+                }
+
+                String defaultEmail = requestEmail(exchange,
+                        body.get("studentEmail") instanceof String ? (String) body.get("studentEmail") : null);
+                List<TaskManager.BatchOperation> operations = new ArrayList<>(items.size());
+                for (int i = 0; i < items.size(); i++) {
+                    try {
+                        operations.add(toBatchOperation(items.get(i), defaultEmail));
+                    } catch (RuntimeException e) {
+                        sendJsonResponse(exchange, 400, "{\"success\":false,\"error\":"
+                                + JsonWriter.quote("operations[" + i + "]: " + e.getMessage()) + "}");
+                        return;
+                    }
+                }
+
+                for (TaskManager.BatchOperation operation : operations) {
+                    if (operation.getType() == TaskManager.BatchOperation.Type.ADD) {
+                        requestEmail(exchange, operation.getStudentEmail());
+                    } else {
+                        checkTaskAccess(exchange, operation.getTaskId());
+                    }
+                }
+
+                List<TaskManager.BatchResult> results = taskManager.applyBatch(operations);
+                boolean applied = results.stream().allMatch(TaskManager.BatchResult::isSuccess);
+                try (JsonWriter json = JsonWriter.acquire()) {
+                    json.beginObject().name("success").value(applied).name("results").beginArray();
+                    for (TaskManager.BatchResult result : results) {
+                        result.writeJson(json);
+                    }
+                    json.endArray().endObject();
+                    sendJsonResponse(exchange, applied ? 200 : 400, json.toString());
+                }
+            } else if ("OPTIONS".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+            }
+        }
+    }
+
+    /**
+     * Build a batch operation from one JSON object of a batch request
+     * @param defaultEmail Request-level studentEmail, used by adds that don't name one
+     */
+    private TaskManager.BatchOperation toBatchOperation(Object item, String defaultEmail) {
+        if (!(item instanceof Map)) {
+            throw new IllegalArgumentException("operation must be an object");
+        }
+        Map<?, ?> fields = (Map<?, ?>) item;
+        TaskManager.BatchOperation.Type type = TaskManager.BatchOperation.Type.fromString(stringField(fields, "op"));
+        String priority = stringField(fields, "priority");
+        String dueDate = stringField(fields, "dueDate");
+
+        if (type == TaskManager.BatchOperation.Type.ADD) {
+            String email = stringField(fields, "studentEmail");
+            return TaskManager.BatchOperation.add(
+                    stringField(fields, "title"),
+                    stringField(fields, "description"),
+                    stringField(fields, "category"),
+                    Task.Priority.fromString(priority),
+                    parseDueDate(dueDate, stringField(fields, "dueTime")),
+                    email != null ? email : defaultEmail);
+        }
+
+        int taskId = Integer.parseInt(stringField(fields, "taskId"));
+        switch (type) {
+            case UPDATE:
+                return TaskManager.BatchOperation.update(taskId,
+                        stringField(fields, "title"),
+                        stringField(fields, "description"),
+                        stringField(fields, "category"),
+                        priority != null ? Task.Priority.fromString(priority) : null,
+                        dueDate != null ? parseDueDate(dueDate, stringField(fields, "dueTime")) : null);
+            case COMPLETE:
+                return TaskManager.BatchOperation.complete(taskId);
+            default:
+                return TaskManager.BatchOperation.delete(taskId);
+        }
+    }
+
+    private static String stringField(Map<?, ?> fields, String name) {
+        Object value = fields.get(name);
+        if (value instanceof Double && (Double) value == Math.rint((Double) value)) {
+            return String.valueOf(((Double) value).longValue());
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    // Query Handler (POST {studentEmail, filter, limit}, combined filters over the bitmap index)
+    // filter is {"category":..} | {"priority":..} | {"completed":true|false} | {"and":[..]} | {"or":[..]} | {"not":{..}}
+    class QueryTaskHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            setCorsHeaders(exchange);
+
+            if ("POST".equals(exchange.getRequestMethod())) {
+                Map<String, Object> body = parseTypedRequestBody(exchange);
+                String email = requestEmail(exchange,
+                        body.get("studentEmail") instanceof String ? (String) body.get("studentEmail") : null);
+                if (taskIndex == null) {
+                    sendJsonResponse(exchange, 404, "{\"error\":\"Task queries disabled\"}");
+                    return;
+                }
+                if (email == null) {
+                    sendJsonResponse(exchange, 400, "{\"error\":\"studentEmail required\"}");
+                    return;
+                }
+
+                TaskQuery query;
+                int limit = DEFAULT_PAGE_SIZE;
+                try {
+                    query = body.get("filter") != null ? toTaskQuery(body.get("filter")) : TaskQuery.all();
+                    if (body.get("limit") != null) {
+                        limit = Integer.parseInt(stringField(body, "limit"));
+                    }
+                } catch (IllegalArgumentException e) {
+                    sendJsonResponse(exchange, 400, "{\"error\":" + JsonWriter.quote(e.getMessage()) + "}");
+                    return;
+                }
+                limit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+                TaskBitmapIndex.Result result = taskIndex.query(email, query, limit);
+                try (JsonWriter json = JsonWriter.acquire()) {
+                    result.writeJson(json);
+                    sendJsonResponse(exchange, 200, json.toString());
+                }
+            } else if ("OPTIONS".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+            }
+        }
+    }
+
+    /**
+     * Build a task query from one JSON filter node, an object with exactly one key
+     */
+    private static TaskQuery toTaskQuery(Object node) {
+        if (!(node instanceof Map) || ((Map<?, ?>) node).size() != 1) {
+            throw new IllegalArgumentException("filter must be an object with one key");
+        }
+        Map.Entry<?, ?> term = ((Map<?, ?>) node).entrySet().iterator().next();
+        String key = String.valueOf(term.getKey());
+        Object value = term.getValue();
+        switch (key) {
+            case "category":
+                if (!(value instanceof String)) {
+                    throw new IllegalArgumentException("category must be a string");
+                }
+                return TaskQuery.category((String) value);
+            case "priority":
+                for (Task.Priority p : Task.Priority.values()) {
+                    if (p.getValue().equalsIgnoreCase(String.valueOf(value))) {
+                        return TaskQuery.priority(p);
+                    }
+                }
+                throw new IllegalArgumentException("Unknown priority: " + value);
+            case "completed":
+                if (!(value instanceof Boolean)) {
+                    throw new IllegalArgumentException("completed must be true or false");
+                }
+                return (Boolean) value ? TaskQuery.completed() : TaskQuery.pending();
+            case "and":
+            case "or":
+                if (!(value instanceof List)) {
+                    throw new IllegalArgumentException(key + " must be an array");
+                }
+                List<TaskQuery> terms = new ArrayList<>();
+                for (Object item : (List<?>) value) {
+                    terms.add(toTaskQuery(item));
+                }
+                return "and".equals(key) ? TaskQuery.and(terms) : TaskQuery.or(terms);
+            case "not":
+                return TaskQuery.not(toTaskQuery(value));
+            default:
+                throw new IllegalArgumentException("Unknown filter: " + key);
+        }
+    }
+
     // Complete Task Handler
     class CompleteTaskHandler implements HttpHandler {
         @Override
@@ -180,6 +591,7 @@ public class WebAPIBridge {
             if ("POST".equals(exchange.getRequestMethod())) {
                 Map<String, String> params = parseRequestBody(exchange);
                 int taskId = Integer.parseInt(params.get("taskId"));
+                checkTaskAccess(exchange, taskId);
 
                 if (taskManager.completeTask(taskId)) {
                     sendJsonResponse(exchange, 200, "{\"success\":true,\"message\":\"Task completed\"}");
@@ -200,6 +612,7 @@ public class WebAPIBridge {
                 String taskIdStr = getQueryParam(exchange, "id");
                 if (taskIdStr != null) {
                     int taskId = Integer.parseInt(taskIdStr);
+                    checkTaskAccess(exchange, taskId);
                     if (taskManager.deleteTask(taskId)) {
                         sendJsonResponse(exchange, 200, "{\"success\":true,\"message\":\"Task deleted\"}");
                     } else {
@@ -217,7 +630,7 @@ public class WebAPIBridge {
             setCorsHeaders(exchange);
 
             if ("GET".equals(exchange.getRequestMethod())) {
-                String email = getQueryParam(exchange, "email");
+                String email = requestEmail(exchange, getQueryParam(exchange, "email"));
                 if (email != null) {
                     TaskManager.TaskStats stats = taskManager.getTaskStats(email);
                     sendJsonResponse(exchange, 200, stats.toJson());
@@ -226,6 +639,97 @@ public class WebAPIBridge {
         }
     }
 
+    // Health Handler (GET, no session needed; 503 while task storage refuses changes)
+    class HealthHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            setCorsHeaders(exchange);
+
+            if ("GET".equals(exchange.getRequestMethod())) {
+                TaskManager.StorageStatus storage = taskManager.getStorageStatus();
+                try (JsonWriter json = JsonWriter.acquire()) {
+                    json.beginObject()
+                            .name("status").value(storage.isWritable() ? "ok" : "degraded")
+                            .name("storage");
+                    storage.writeJson(json);
+                    json.endObject();
+                    sendJsonResponse(exchange, storage.isWritable() ? 200 : 503, json.toString());
+                }
+            }
+        }
+    }
+
+    // Analytics Handler (GET ?email=&days=, aggregates from the column store)
+    class AnalyticsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            setCorsHeaders(exchange);
+
+            if ("GET".equals(exchange.getRequestMethod())) {
+                Map<String, String> query = getQueryParams(exchange);
+                String email = requestEmail(exchange, query.get("email"));
+                if (analytics == null) {
+                    sendJsonResponse(exchange, 404, "{\"error\":\"Analytics disabled\"}");
+                    return;
+                }
+                if (email == null) {
+                    sendJsonResponse(exchange, 400, "{\"error\":\"Email parameter required\"}");
+                    return;
+                }
+
+                int days = DEFAULT_ANALYTICS_DAYS;
+                try {
+                    if (query.get("days") != null) {
+                        days = Integer.parseInt(query.get("days"));
+                    }
+                } catch (NumberFormatException e) {
+                    sendJsonResponse(exchange, 400, "{\"error\":\"days must be a number\"}");
+                    return;
+                }
+                days = Math.max(1, Math.min(days, MAX_ANALYTICS_DAYS));
+
+                sendJsonResponse(exchange, 200, analytics.report(email, days).toJson());
+            }
+        }
+    }
+
+    // Events Handler (GET ?email=, Server-Sent Events stream of task changes)
+    class EventsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            setCorsHeaders(exchange);
+
+            if ("GET".equals(exchange.getRequestMethod())) {
+                // EventSource cannot send headers, so this endpoint alone also takes ?token=
+                Map<String, String> query = getQueryParams(exchange);
+                String token = bearerToken(exchange);
+                String email = requestEmail(token != null ? token : query.get("token"), query.get("email"));
+                if (email == null) {
+                    sendJsonResponse(exchange, 400, "{\"error\":\"Email parameter required\"}");
+                } else if (!eventHub.subscribe(exchange, email)) {
+                    sendJsonResponse(exchange, 503, "{\"error\":\"Too many event streams\"}");
+                }
+                // On success the exchange stays open; the hub writes to it and closes it
+            }
+        }
+    }
+
+    // Reminder Webhook Handler (local stand-in for an external webhook receiver)
+    class ReminderWebhookHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                Map<String, String> reminder = parseRequestBody(exchange);
+                System.out.println("Webhook received reminder: " + reminder.get("type")
+                        + " for task #" + reminder.get("taskId") + " (" + reminder.get("studentEmail") + ")");
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+            } else {
+                sendJsonResponse(exchange, 405, "{\"error\":\"POST required\"}");
+            }
+        }
+    }
+
     // Static File Handler
     class StaticFileHandler implements HttpHandler {
         @Override
@@ -254,62 +758,201 @@ public class WebAPIBridge {
     }
 
     // Helper methods
+
+    /**
+     * Due date from the form's date ("2025-01-31") and optional time ("14:30"); end of day if no time
+     */
+    private static LocalDateTime parseDueDate(String date, String time) {
+        if (time != null && !time.isEmpty()) {
+            return LocalDateTime.parse(date + "T" + time + ":00");
+        }
+        return LocalDateTime.parse(date + "T23:59:59");
+    }
+
     private void setCorsHeaders(HttpExchange exchange) {
         exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
         exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, POST, DELETE, OPTIONS");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, Authorization");
     }
 
+    /**
+     * Parse a JSON or form body into flat string parameters.
+     * Scalars are converted to strings; nested objects and arrays are skipped.
+     */
     private Map<String, String> parseRequestBody(HttpExchange exchange) throws IOException {
         Map<String, String> params = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody()))) {
-            StringBuilder body = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                body.append(line);
-            }
-
-            String bodyStr = body.toString();
-            if (bodyStr.startsWith("{") && bodyStr.endsWith("}")) {
-                // Simple JSON parsing
-                bodyStr = bodyStr.substring(1, bodyStr.length() - 1);
-                String[] pairs = bodyStr.split(",");
-                for (String pair : pairs) {
-                    String[] kv = pair.split(":");
-                    if (kv.length == 2) {
-                        String key = kv[0].replace("\"", "").trim();
-                        String value = kv[1].replace("\"", "").trim();
-                        params.put(key, value);
-                    }
-                }
+        for (Map.Entry<String, Object> field : parseTypedRequestBody(exchange).entrySet()) {
+            Object value = field.getValue();
+            if (value instanceof Long || value instanceof String || value instanceof Boolean) {
+                params.put(field.getKey(), value.toString());
+            } else if (value instanceof Double) {
+                double number = (Double) value;
+                params.put(field.getKey(), number == Math.rint(number)
+                        ? String.valueOf((long) number) : value.toString());
             }
         }
         return params;
     }
 
-    private String getQueryParam(HttpExchange exchange, String paramName) {
-        String query = exchange.getRequestURI().getQuery();
-        if (query != null) {
-            String[] pairs = query.split("&");
-            for (String pair : pairs) {
-                String[] kv = pair.split("=");
-                if (kv.length == 2 && kv[0].equals(paramName)) {
-                    return kv[1];
-                }
+    /**
+     * Parse a JSON or form body into typed values, reading at most MAX_BODY_BYTES
+     */
+    private Map<String, Object> parseTypedRequestBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return RequestBodyParser.parse(body,
+                    exchange.getRequestHeaders().getFirst("Content-Type"), MAX_BODY_BYTES);
+        }
+    }
+
+    /**
+     * Resolve the student a request acts for from its Authorization header
+     * @param claimedEmail Email named by the request, may be null
+     * @throws AuthException if the request may not proceed
+     */
+    private String requestEmail(HttpExchange exchange, String claimedEmail) throws AuthException {
+        return requestEmail(bearerToken(exchange), claimedEmail);
+    }
+
+    /**
+     * Resolve the student a request acts for.
+     * The session's email is used and a different claimed email is refused (403); a missing,
+     * unknown or expired token is refused (401). Only with smarttask.dev.trustClaimedEmail
+     * is a request without a token trusted to act for the email it claims.
+     * @param token Session token sent with the request, may be null
+     * @param claimedEmail Email named by the request, may be null
+     * @throws AuthException if the request may not proceed
+     */
+    private String requestEmail(String token, String claimedEmail) throws AuthException {
+        if (token == null) {
+            if (!TRUST_CLAIMED_EMAIL) {
+                throw new AuthException(401, "Session token required");
             }
+            return claimedEmail;
+        }
+
+        SessionManager.Session session = sessionManager.validate(token);
+        if (session == null) {
+            throw new AuthException(401, "Session expired or invalid");
+        }
+        if (claimedEmail != null && !claimedEmail.trim().equalsIgnoreCase(session.getEmail())) {
+            throw new AuthException(403, "Session does not belong to " + claimedEmail);
+        }
+        return session.getEmail();
+    }
+
+    /**
+     * Check that the request may modify a task (a missing task is left to the handler's 404)
+     */
+    private void checkTaskAccess(HttpExchange exchange, int taskId) throws AuthException {
+        Task task = taskManager.getTaskById(taskId);
+        requestEmail(exchange, task != null ? task.getStudentEmail() : null);
+    }
+
+    /**
+     * Session token from "Authorization: Bearer ...", or null if there is none
+     */
+    private String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return header.substring(7).trim();
         }
         return null;
     }
 
+    private String getQueryParam(HttpExchange exchange, String paramName) throws RequestBodyParser.BodyException {
+        return getQueryParams(exchange).get(paramName);
+    }
+
+    private Map<String, String> getQueryParams(HttpExchange exchange) throws RequestBodyParser.BodyException {
+        return RequestBodyParser.parseForm(exchange.getRequestURI().getRawQuery());
+    }
+
+    /**
+     * Wrap a handler so malformed or oversized bodies, auth failures, a busy hasher and task
+     * storage failures get a JSON error instead of a dropped connection
+     */
+    private HttpHandler guarded(HttpHandler handler) {
+        return exchange -> {
+            try {
+                handler.handle(exchange);
+            } catch (RequestBodyParser.BodyException e) {
+                setCorsHeaders(exchange);
+                sendJsonResponse(exchange, e.getStatusCode(),
+                        "{\"success\":false,\"error\":" + JsonWriter.quote(e.getMessage()) + "}");
+            } catch (AuthException e) {
+                setCorsHeaders(exchange);
+                sendJsonResponse(exchange, e.getStatusCode(),
+                        "{\"success\":false,\"error\":" + JsonWriter.quote(e.getMessage()) + "}");
+            } catch (UncheckedIOException e) {
+                // Task storage failed; TaskManager refuses changes until a snapshot succeeds
+                setCorsHeaders(exchange);
+                sendJsonResponse(exchange, 503,
+                        "{\"success\":false,\"error\":" + JsonWriter.quote(e.getMessage()) + "}");
+            } catch (PasswordHasher.BusyException e) {
+                // Shed login/register load instead of letting it queue behind the hashing pool
+                setCorsHeaders(exchange);
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendJsonResponse(exchange, 503,
+                        "{\"success\":false,\"error\":" + JsonWriter.quote(e.getMessage()) + "}");
+            }
+        };
+    }
+
+    /**
+     * Answer an exchange from whichever thread completes an async result
+     */
+    private <T> void respondWhenDone(HttpExchange exchange, CompletableFuture<T> result, AsyncResponse<T> response) {
+        result.whenComplete((value, error) -> {
+            try {
+                if (error != null) {
+                    System.err.println("Request failed: " + error.getMessage());
+                    sendJsonResponse(exchange, 500, "{\"success\":false,\"error\":\"Internal error\"}");
+                } else {
+                    response.send(value);
+                }
+            } catch (IOException e) {
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * Response written once an async result is available
+     */
+    private interface AsyncResponse<T> {
+        void send(T value) throws IOException;
+    }
+
     private void sendJsonResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
         sendResponse(exchange, statusCode, response);
     }
 
     private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.sendResponseHeaders(statusCode, response.length());
+        byte[] body = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, body.length);
         try (OutputStream os = exchange.getResponseBody()) {
-            os.write(response.getBytes());
+            os.write(body);
+        }
+    }
+
+    /**
+     * Stream tasks as a JSON array using chunked transfer encoding.
+     * Tasks are encoded straight into a pooled UTF-8 buffer that is flushed to the
+     * response as it fills, so memory per request stays constant however many tasks
+     * the student has.
+     */
+    private void streamJsonArray(HttpExchange exchange, int statusCode, Stream<Task> tasks) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, 0); // 0 = chunked
+        try (OutputStream os = exchange.getResponseBody();
+             JsonWriter json = JsonWriter.acquire(os)) {
+            json.beginArray();
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                iterator.next().writeJson(json);
+            }
+            json.endArray();
         }
     }
 
@@ -321,13 +964,32 @@ public class WebAPIBridge {
         return "text/plain";
     }
 
+    /**
+     * Request refused for lack of a valid session, carrying the HTTP status to answer with
+     */
+    static class AuthException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statusCode;
+
+        AuthException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+    }
+
     // Main method
     public static void main(String[] args) {
         try {
             WebAPIBridge server = new WebAPIBridge(8080);
             server.start();
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             System.err.println("Failed to start server: " + e.getMessage());
+            System.exit(1);
         }
     }
 }
@@ -0,0 +1,86 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TaskFootprintTest - Measures Task's memory layout with JOL and checks that categories and
+ * emails are shared between tasks. Run with -Dsmarttask.footprint.print=true to print the
+ * layout and per-task footprint it measures.
+ */
+class TaskFootprintTest {
+    private static final boolean PRINT = Boolean.getBoolean("smarttask.footprint.print");
+    private static final int TASKS = 50_000;
+    private static final String[] CATEGORIES = {"Exams", "Homework", "Projects", "Reading", "Personal"};
+    private static final int STUDENTS = 2_000;
+
+    @Test
+    void taskInstanceIsCompact() {
+        ClassLayout layout = ClassLayout.parseClass(Task.class);
+        if (PRINT) {
+            System.out.println(layout.toPrintable());
+        }
+        // int id, 3 references, byte priority, 3 longs and 3 ints (date-times), boolean, plus header
+        assertTrue(layout.instanceSize() <= 72, "Task instance is " + layout.instanceSize() + " bytes");
+    }
+
+    /**
+     * Tasks built from freshly parsed strings (as when loading a file) must end up sharing one
+     * instance per category and email, so per-task memory is the Task itself, not its copies
+     */
+    @Test
+    void repeatedValuesAreShared() {
+        List<Task> tasks = new ArrayList<>(TASKS);
+        LocalDateTime due = LocalDateTime.of(2026, 12, 1, 9, 0);
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task(i + 1, null, null,
+                    new String(CATEGORIES[i % CATEGORIES.length].toCharArray()),
+                    Task.Priority.MEDIUM, due.plusHours(i),
+                    new String(("student" + (i % STUDENTS) + "@example.com").toCharArray()));
+            tasks.add(task);
+        }
+
+        // Every task is a root, so the graph holds the tasks and what they reference, no list
+        GraphLayout graph = GraphLayout.parseInstance(tasks.toArray());
+        long taskBytes = graph.totalSize();
+        if (PRINT) {
+            System.out.printf("%d tasks: %d Task (%d bytes), %d String (%d bytes), %.1f bytes per task%n",
+                    TASKS, graph.getClassCounts().count(Task.class), graph.getClassSizes().count(Task.class),
+                    graph.getClassCounts().count(String.class), graph.getClassSizes().count(String.class),
+                    (double) taskBytes / TASKS);
+        }
+
+        // Unshared, every task would hold its own two copies; a few extra come from evictions
+        long strings = graph.getClassCounts().count(String.class);
+        assertTrue(strings <= 2 * (CATEGORIES.length + STUDENTS),
+                strings + " String instances for " + (CATEGORIES.length + STUDENTS) + " distinct values");
+        long instanceSize = ClassLayout.parseClass(Task.class).instanceSize();
+        assertTrue(taskBytes < TASKS * (instanceSize + 8L),
+                "tasks take " + taskBytes + " bytes, " + (double) taskBytes / TASKS + " per task");
+    }
+
+    /**
+     * The sharing table is bounded, so a flood of distinct values evicts entries; values in
+     * use must still be shared afterwards
+     */
+    @Test
+    void sharingSurvivesDistinctValueFlood() {
+        Task task = new Task();
+        for (int i = 0; i < 200_000; i++) {
+            task.setCategory("flood-" + i);
+        }
+
+        Task first = new Task();
+        Task second = new Task();
+        first.setCategory(new String("Exams".toCharArray()));
+        second.setCategory(new String("Exams".toCharArray()));
+        assertSame(first.getCategory(), second.getCategory());
+    }
+}
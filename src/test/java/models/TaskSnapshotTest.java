@@ -0,0 +1,184 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TaskSnapshotTest - Round trip of the binary snapshot, and corrupt files failing with an
+ * IOException rather than a runtime error or a huge allocation
+ */
+class TaskSnapshotTest {
+    // Offsets into a snapshot of tasks() below: magic, version, then the string table
+    private static final int TABLE_SIZE_OFFSET = 8;
+    private static final int FIRST_STRING_OFFSET = 12;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrips() throws IOException {
+        List<Task> tasks = tasks();
+        List<Task> read = read(TaskSnapshot.encode(tasks));
+
+        assertEquals(tasks.size(), read.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task expected = tasks.get(i);
+            Task actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getPriority(), actual.getPriority());
+            assertEquals(expected.getDueDate(), actual.getDueDate());
+            assertEquals(expected.isCompleted(), actual.isCompleted());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+            assertEquals(expected.getCompletedAt(), actual.getCompletedAt());
+            assertEquals(expected.getStudentEmail(), actual.getStudentEmail());
+        }
+    }
+
+    @Test
+    void keepsSubSecondPrecision() throws IOException {
+        LocalDateTime due = LocalDateTime.of(2026, 12, 1, 9, 30, 15, 123_456_789);
+        LocalDateTime created = LocalDateTime.of(2025, 9, 29, 8, 43, 7, 16_803_200);
+        LocalDateTime completedAt = created.plusNanos(999_999_999);
+        Task task = new Task(1, "Precise", null, null, Task.Priority.HIGH, due, "a@example.com");
+        task.setCreatedAt(created);
+        task.setCompleted(true);
+        task.setCompletedAt(completedAt);
+        assertEquals(due, task.getDueDate());
+
+        Task read = read(TaskSnapshot.encode(List.of(task))).get(0);
+        assertEquals(due, read.getDueDate());
+        assertEquals(created, read.getCreatedAt());
+        assertEquals(completedAt, read.getCompletedAt());
+    }
+
+    @Test
+    void readsVersionOneWithWholeSeconds() throws IOException {
+        LocalDateTime due = LocalDateTime.of(2026, 12, 1, 9, 30, 15);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(TaskSnapshot.MAGIC);
+            out.writeInt(1);
+            out.writeInt(0);                        // empty string table
+            out.writeInt(1);                        // one task
+            out.writeInt(7);                        // id
+            out.writeInt(-1);                       // title
+            out.writeInt(-1);                       // description
+            out.writeInt(-1);                       // category
+            out.writeByte(Task.Priority.LOW.ordinal());
+            out.writeLong(due.toEpochSecond(ZoneOffset.UTC));
+            out.writeByte(0);                       // not completed
+            out.writeLong(due.minusDays(3).toEpochSecond(ZoneOffset.UTC));
+            out.writeLong(Task.NO_TIME);            // completedAt
+            out.writeInt(-1);                       // email
+        }
+
+        Task read = read(bytes.toByteArray()).get(0);
+        assertEquals(7, read.getId());
+        assertEquals(due, read.getDueDate());
+        assertEquals(due.minusDays(3), read.getCreatedAt());
+        assertNull(read.getCompletedAt());
+    }
+
+    @Test
+    void rejectsBadNanos() {
+        Task task = new Task(1, null, null, null, Task.Priority.LOW, null, null);
+        byte[] snapshot = TaskSnapshot.encode(List.of(task));
+        // Due nanos follow the priority byte and the due second
+        int dueNanosOffset = FIRST_STRING_OFFSET + 4 + 4 + 4 + 4 + 4 + 1 + 8;
+        ByteBuffer.wrap(snapshot).putInt(dueNanosOffset, 1_000_000_000);
+        assertCorrupt(snapshot);
+    }
+
+    @Test
+    void rejectsNegativeTableSize() {
+        byte[] snapshot = TaskSnapshot.encode(tasks());
+        ByteBuffer.wrap(snapshot).putInt(TABLE_SIZE_OFFSET, -5);
+        assertCorrupt(snapshot);
+    }
+
+    @Test
+    void rejectsTableSizeBeyondFile() {
+        byte[] snapshot = TaskSnapshot.encode(tasks());
+        ByteBuffer.wrap(snapshot).putInt(TABLE_SIZE_OFFSET, Integer.MAX_VALUE);
+        assertCorrupt(snapshot);
+    }
+
+    @Test
+    void rejectsHugeStringLength() {
+        byte[] snapshot = TaskSnapshot.encode(tasks());
+        ByteBuffer.wrap(snapshot).putInt(FIRST_STRING_OFFSET, Integer.MAX_VALUE - 8);
+        assertCorrupt(snapshot);
+    }
+
+    @Test
+    void rejectsNegativeStringLength() {
+        byte[] snapshot = TaskSnapshot.encode(tasks());
+        ByteBuffer.wrap(snapshot).putInt(FIRST_STRING_OFFSET, -7);
+        assertCorrupt(snapshot);
+    }
+
+    @Test
+    void rejectsBadPriority() {
+        Task task = new Task(1, null, null, null, Task.Priority.LOW, null, null);
+        byte[] snapshot = TaskSnapshot.encode(List.of(task));
+        // One record after an empty table: id, null title, null description, null category ref
+        int priorityOffset = FIRST_STRING_OFFSET + 4 + 4 + 4 + 4 + 4;
+        assertEquals(Task.Priority.LOW.ordinal(), snapshot[priorityOffset]);
+        snapshot[priorityOffset] = -1;
+        assertCorrupt(snapshot);
+    }
+
+    @Test
+    void rejectsTruncatedFile() {
+        byte[] snapshot = TaskSnapshot.encode(tasks());
+        for (int length = 8; length < snapshot.length; length += 7) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(snapshot, 0, truncated, 0, length);
+            assertCorrupt(truncated);
+        }
+    }
+
+    private static List<Task> tasks() {
+        List<Task> tasks = new ArrayList<>();
+        LocalDateTime due = LocalDateTime.of(2026, 12, 1, 9, 30, 0, 250_000_000);
+        for (int i = 0; i < 10; i++) {
+            Task task = new Task(i + 1, "Task " + i, i % 3 == 0 ? null : "Notes é " + i,
+                    i % 4 == 0 ? null : "Exams", Task.Priority.values()[i % 3], due.plusDays(i),
+                    "student" + (i % 2) + "@example.com");
+            if (i % 2 == 0) {
+                task.markCompleted();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private List<Task> read(byte[] snapshot) throws IOException {
+        Path file = dir.resolve("tasks.bin");
+        Files.write(file, snapshot);
+        List<Task> tasks = new ArrayList<>();
+        assertEquals(TaskSnapshot.read(file, tasks::add), tasks.size());
+        return tasks;
+    }
+
+    private void assertCorrupt(byte[] snapshot) {
+        IOException e = assertThrows(IOException.class, () -> read(snapshot));
+        assertTrue(e.getMessage().startsWith("Truncated or corrupt snapshot"), e.getMessage());
+    }
+}
@@ -0,0 +1,219 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConcurrentIntHashMapTest - Single-threaded semantics plus multi-threaded put/remove/get stress
+ * Few segments and many keys force contention and segment resizes, so optimistic reads
+ * regularly race with writers.
+ */
+class ConcurrentIntHashMapTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int KEYS_PER_WRITER = 20_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void putGetRemove() {
+        ConcurrentIntHashMap<String> map = new ConcurrentIntHashMap<>();
+        assertNull(map.put(1, "a"));
+        assertEquals("a", map.put(1, "b"));
+        assertEquals("b", map.get(1));
+        assertTrue(map.containsKey(1));
+        assertNull(map.get(2));
+        assertEquals(1, map.size());
+
+        assertFalse(map.remove(1, "a"));
+        assertTrue(map.remove(1, "b"));
+        assertNull(map.remove(1));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void segmentCountIsRoundedToPowerOfTwo() {
+        ConcurrentIntHashMap<Integer> map = new ConcurrentIntHashMap<>(3);
+        for (int i = -1000; i < 1000; i++) {
+            map.put(i, i);
+        }
+        for (int i = -1000; i < 1000; i++) {
+            assertEquals(i, map.get(i));
+        }
+        assertEquals(2000, map.size());
+        assertEquals(2000, map.values().size());
+    }
+
+    /**
+     * Writers own disjoint key ranges and check every value they read back against their
+     * own shadow map; readers meanwhile probe every key and must only ever see a value that
+     * was written for that key.
+     */
+    @Test
+    void concurrentPutRemoveGet() throws Exception {
+        ConcurrentIntHashMap<Value> map = new ConcurrentIntHashMap<>(4);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger writersLeft = new AtomicInteger(WRITERS);
+        List<Future<Map<Integer, Value>>> writers = new ArrayList<>();
+        List<Future<Long>> readers = new ArrayList<>();
+
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(pool.submit(() -> {
+                    try {
+                        start.await();
+                        return write(map, writer);
+                    } finally {
+                        if (writersLeft.decrementAndGet() == 0) {
+                            writing.set(false);
+                        }
+                    }
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                long seed = r;
+                readers.add(pool.submit(() -> {
+                    start.await();
+                    return read(map, writing, seed);
+                }));
+            }
+            start.countDown();
+
+            Map<Integer, Value> expected = new HashMap<>();
+            for (Future<Map<Integer, Value>> writer : writers) {
+                expected.putAll(writer.get(60, TimeUnit.SECONDS));
+            }
+            for (Future<Long> reader : readers) {
+                assertTrue(reader.get(60, TimeUnit.SECONDS) > 0, "reader made no progress");
+            }
+
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.size(), map.values().size());
+            for (Map.Entry<Integer, Value> entry : expected.entrySet()) {
+                assertSame(entry.getValue(), map.get(entry.getKey()), "key " + entry.getKey());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Threads race to conditionally remove the same entries; each must be removed exactly once
+     */
+    @Test
+    void conditionalRemoveSucceedsOnce() throws Exception {
+        int keys = 50_000;
+        int threads = 4;
+        ConcurrentIntHashMap<Value> map = new ConcurrentIntHashMap<>(8);
+        Value[] values = new Value[keys];
+        for (int key = 0; key < keys; key++) {
+            values[key] = new Value(key);
+            map.put(key, values[key]);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    start.await();
+                    int removed = 0;
+                    for (int key = 0; key < keys; key++) {
+                        if (map.remove(key, values[key])) {
+                            removed++;
+                        }
+                    }
+                    return removed;
+                });
+            }
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Callable<Integer> task : tasks) {
+                results.add(pool.submit(task));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(keys, total);
+            assertEquals(0, map.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Map<Integer, Value> write(ConcurrentIntHashMap<Value> map, int writer) {
+        Map<Integer, Value> shadow = new HashMap<>();
+        Random random = new Random(writer);
+        for (int round = 0; round < ROUNDS; round++) {
+            // Grow well past the initial capacity, then shrink, checking as we go
+            for (int i = 0; i < KEYS_PER_WRITER; i++) {
+                int key = keyFor(writer, i);
+                Value value = new Value(key);
+                assertSame(shadow.put(key, value), map.put(key, value), "put " + key);
+                assertSame(value, map.get(key), "get after put " + key);
+            }
+            for (int i = 0; i < KEYS_PER_WRITER; i++) {
+                if (random.nextInt(3) == 0) {
+                    int key = keyFor(writer, i);
+                    assertSame(shadow.remove(key), map.remove(key), "remove " + key);
+                    assertNull(map.get(key), "get after remove " + key);
+                }
+            }
+            for (Map.Entry<Integer, Value> entry : shadow.entrySet()) {
+                assertSame(entry.getValue(), map.get(entry.getKey()), "get " + entry.getKey());
+            }
+        }
+        return shadow;
+    }
+
+    private static long read(ConcurrentIntHashMap<Value> map, AtomicBoolean writing, long seed) {
+        Random random = new Random(seed);
+        long reads = 0;
+        do {
+            for (int i = 0; i < 10_000; i++) {
+                int key = keyFor(random.nextInt(WRITERS), random.nextInt(KEYS_PER_WRITER));
+                Value value = map.get(key);
+                if (value != null && value.key != key) {
+                    fail("key " + key + " returned the value of key " + value.key);
+                }
+                reads++;
+            }
+        } while (writing.get());
+        return reads;
+    }
+
+    /**
+     * Spread each writer's keys across the whole int range, negatives included
+     */
+    private static int keyFor(int writer, int index) {
+        return (index * WRITERS + writer) * 0x61C88647;
+    }
+
+    private static final class Value {
+        final int key;
+
+        Value(int key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import models.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JsonWriterTest - Escaping, date-time and structure output, checked by parsing it back with
+ * Jackson, plus reuse of pooled buffers and streaming to a sink
+ */
+class JsonWriterTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void escapesPerRfc8259() {
+        assertEquals("\"a\\\"b\\\\c\"", JsonWriter.quote("a\"b\\c"));
+        assertEquals("\"\\n\\r\\t\\b\\f\"", JsonWriter.quote("\n\r\t\b\f"));
+        assertEquals("\"\\u0000\\u001f\"", JsonWriter.quote("\u0000\u001f"));
+        assertEquals("\"\\u2028\\u2029\"", JsonWriter.quote("\u2028\u2029"));
+        assertEquals("\"\\ud800x\"", JsonWriter.quote("\ud800x"));
+        assertEquals("\"/<>\u007f\"", JsonWriter.quote("/<>\u007f"));
+        assertEquals("null", JsonWriter.quote(null));
+    }
+
+    @Test
+    void encodesMultiByteCharactersAsUtf8() throws Exception {
+        String text = "é€\uD83D\uDE00";
+        String json = JsonWriter.quote(text);
+        assertEquals("\"" + text + "\"", json);
+        assertEquals(text, MAPPER.readTree(json.getBytes(StandardCharsets.UTF_8)).asText());
+    }
+
+    @Test
+    void randomStringsRoundTrip() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            String text = randomString(random);
+            String json = JsonWriter.quote(text);
+            assertEquals(text, MAPPER.readTree(json).asText(), () -> "round trip of " + json);
+        }
+    }
+
+    @Test
+    void dateTimesMatchIsoLocalDateTime() {
+        LocalDateTime[] values = {
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+                LocalDateTime.of(2024, 1, 2, 23, 59, 0),
+                LocalDateTime.of(2024, 1, 3, 0, 0, 0, 500_000_000),
+                LocalDateTime.of(2024, 1, 3, 0, 0, 0, 120_000),
+                LocalDateTime.of(2024, 1, 3, 0, 0, 0, 1),
+                LocalDateTime.of(1, 12, 31, 12, 0),
+                LocalDateTime.of(12345, 6, 7, 8, 9),
+                LocalDateTime.of(-5, 6, 7, 8, 9),
+        };
+        // Several values share a date, so this also covers the cached date prefix
+        try (JsonWriter json = JsonWriter.acquire()) {
+            json.beginArray();
+            StringBuilder expected = new StringBuilder("[");
+            for (LocalDateTime value : values) {
+                json.value(value);
+                if (expected.length() > 1) {
+                    expected.append(',');
+                }
+                expected.append('"').append(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append('"');
+            }
+            json.value((LocalDateTime) null);
+            json.endArray();
+            assertEquals(expected.append(",null]").toString(), json.toString());
+        }
+    }
+
+    @Test
+    void writesNestedStructures() {
+        try (JsonWriter json = JsonWriter.acquire()) {
+            json.beginObject()
+                    .name("a").beginArray().value(1).value(-2).value(Long.MIN_VALUE).value(Long.MAX_VALUE).endArray()
+                    .name("b").beginObject().endObject()
+                    .name("c").beginArray().beginArray().endArray().beginObject().name("d").nullValue().endObject().endArray()
+                    .name("e").value(true)
+                    .name("f").rawValue("{\"g\":[0]}")
+                    .endObject();
+            assertEquals("{\"a\":[1,-2,-9223372036854775808,9223372036854775807],\"b\":{},"
+                    + "\"c\":[[],{\"d\":null}],\"e\":true,\"f\":{\"g\":[0]}}", json.toString());
+        }
+    }
+
+    @Test
+    void rejectsUnbalancedContainers() {
+        try (JsonWriter json = JsonWriter.acquire()) {
+            assertThrows(IllegalStateException.class, json::endObject);
+        }
+    }
+
+    /**
+     * A pooled buffer must come back empty and with fresh nesting state, whatever the
+     * previous user left in it
+     */
+    @Test
+    void pooledBuffersStartClean() {
+        for (int i = 0; i < 1_000; i++) {
+            JsonWriter dirty = JsonWriter.acquire();
+            dirty.beginObject().name("left").beginArray().value("open " + i).value(i);
+            dirty.close();
+
+            try (JsonWriter json = JsonWriter.acquire()) {
+                assertEquals(0, json.size());
+                json.beginArray().value(i).endArray();
+                assertEquals("[" + i + "]", json.toString());
+            }
+        }
+    }
+
+    @Test
+    void grownBuffersAreReusable() {
+        String large = "x".repeat(40_000);
+        for (int i = 0; i < 50; i++) {
+            try (JsonWriter json = JsonWriter.acquire()) {
+                json.beginArray().value(large).value(large).endArray();
+                assertEquals(80_007, json.size());
+            }
+            try (JsonWriter json = JsonWriter.acquire()) {
+                assertEquals("\"y\"", json.value("y").toString());
+            }
+        }
+    }
+
+    /**
+     * Output flushed to a sink as the buffer fills must equal output built in memory
+     */
+    @Test
+    void streamingMatchesBuffered() {
+        Random random = new Random(7);
+        String[] values = new String[20_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomString(random);
+        }
+
+        String buffered;
+        try (JsonWriter json = JsonWriter.acquire()) {
+            writeAll(json, values);
+            buffered = json.toString();
+        }
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (JsonWriter json = JsonWriter.acquire(sink)) {
+            writeAll(json, values);
+        }
+        assertEquals(buffered, sink.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void taskJsonParses() throws Exception {
+        Task task = new Task(7, "Say \"hi\"\n", "tab\there", "Exams", Task.Priority.HIGH,
+                LocalDateTime.of(2026, 12, 1, 9, 30), "a@x.com");
+        JsonNode node = MAPPER.readTree(task.toJson());
+        assertEquals(7, node.get("id").asInt());
+        assertEquals("Say \"hi\"\n", node.get("title").asText());
+        assertEquals("tab\there", node.get("description").asText());
+        assertEquals("high", node.get("priority").asText());
+        assertEquals("2026-12-01T09:30:00", node.get("dueDate").asText());
+        assertFalse(node.get("completed").asBoolean());
+        assertTrue(node.get("completedAt").isNull());
+    }
+
+    private static void writeAll(JsonWriter json, String[] values) {
+        json.beginArray();
+        for (String value : values) {
+            json.beginObject().name("v").value(value).endObject();
+        }
+        json.endArray();
+    }
+
+    /**
+     * Mix of ASCII, control characters, 2- and 3-byte characters, surrogate pairs and
+     * lone surrogates
+     */
+    private static String randomString(Random random) {
+        int length = random.nextInt(40);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(6)) {
+                case 0: text.append((char) random.nextInt(0x20)); break;
+                case 1: text.append((char) (0x20 + random.nextInt(0x60))); break;
+                case 2: text.append((char) (0x80 + random.nextInt(0x780))); break;
+                case 3: text.append((char) (0x800 + random.nextInt(0xD000))); break;
+                case 4: text.appendCodePoint(0x10000 + random.nextInt(0xFFFFF)); break;
+                default: text.append((char) (0xD800 + random.nextInt(0x800))); break;
+            }
+        }
+        return text.toString();
+    }
+}
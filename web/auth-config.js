@@ -128,4 +128,46 @@ function hideLoading() {
  * Shorthand notification functions
  */
 const showError = (message) => showNotification(message, 'error');
-const showSuccess = (message) => showNotification(message, 'success');
\ No newline at end of file
+const showSuccess = (message) => showNotification(message, 'success');
+
+/**
+ * Task server session, from POST /api/login; every task API call must carry its token
+ */
+const API_SESSION_KEY = 'smarttask.apiSession';
+
+function saveApiSession(token, expiresAt) {
+    localStorage.setItem(API_SESSION_KEY, JSON.stringify({ token, expiresAt }));
+}
+
+/**
+ * Stored session token, or null if there is none or it has expired
+ */
+function getApiToken() {
+    try {
+        const session = JSON.parse(localStorage.getItem(API_SESSION_KEY));
+        if (session && session.token && session.expiresAt > Date.now()) {
+            return session.token;
+        }
+    } catch (e) {
+        // Unreadable entry: treat as logged out
+    }
+    clearApiSession();
+    return null;
+}
+
+function clearApiSession() {
+    localStorage.removeItem(API_SESSION_KEY);
+}
+
+/**
+ * fetch() with "Authorization: Bearer <token>"; a 401 drops the stored session
+ */
+async function apiFetch(url, options = {}) {
+    const token = getApiToken();
+    const headers = { ...(options.headers || {}) };
+    if (token) headers['Authorization'] = `Bearer ${token}`;
+
+    const response = await fetch(url, { ...options, headers });
+    if (response.status === 401) clearApiSession();
+    return response;
+}
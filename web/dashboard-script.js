@@ -5,6 +5,8 @@
 
 // Configuration
 const API_BASE_URL = 'http://localhost:8080/api';
+// Tasks are fetched a page at a time, newest first; more pages load on scroll or on demand
+const TASK_PAGE_SIZE = 50;
 
 // Task Manager Class
 class TaskManager {
@@ -12,16 +14,42 @@ class TaskManager {
         this.tasks = [];
         this.currentFilter = 'all';
         this.currentUser = null;
+        // Cursor of the next page (major_minor_id, from the server), null once everything is loaded
+        this.nextCursor = null;
+        this.loadingPage = false;
     }
 
     setTasks(tasks) {
         this.tasks = tasks;
     }
 
+    appendTasks(tasks) {
+        const loaded = new Set(this.tasks.map(t => t.id));
+        this.tasks.push(...tasks.filter(t => !loaded.has(t.id)));
+    }
+
+    hasMoreTasks() {
+        return this.nextCursor !== null;
+    }
+
     getTasks() {
         return this.tasks;
     }
 
+    upsertTask(task) {
+        const index = this.tasks.findIndex(t => t.id === task.id);
+        if (index >= 0) {
+            this.tasks[index] = task;
+        } else {
+            // Pages are newest first, so a new task goes on top
+            this.tasks.unshift(task);
+        }
+    }
+
+    removeTask(taskId) {
+        this.tasks = this.tasks.filter(t => t.id !== taskId);
+    }
+
     getFilteredTasks(filter = 'all') {
         if (filter === 'all') return this.tasks;
         return this.tasks.filter(t => t.priority === filter);
@@ -40,6 +68,13 @@ class TaskManager {
 
 const taskManager = new TaskManager();
 
+// Renders the "All Tasks" grid for the current view (all, a category, completed)
+let renderTaskGrid = () => renderAllTasks();
+
+// Live event stream; while it is connected, mutations arrive as events instead of re-fetches
+let taskEvents = null;
+let taskEventsConnected = false;
+
 // ===========================
 // Authentication & Initialization
 // ===========================
@@ -50,7 +85,7 @@ async function checkAuth() {
 
         console.log('Auth check:', user ? 'User found' : 'No user');
 
-        if (error || !user) {
+        if (error || !user || !getApiToken()) {
             console.error('No user found:', error);
             showError('Please login first');
             setTimeout(() => window.location.href = 'login.html', 2000);
@@ -85,32 +120,45 @@ function displayUserInfo(user) {
 // Task API Operations
 // ===========================
 
+/**
+ * Fetch one page of tasks, newest first
+ * @param {string|null} cursor nextCursor of the previous page, or null for the first page
+ * @returns {Promise<{tasks: Array, nextCursor: string|null}>}
+ */
+async function fetchTaskPage(cursor) {
+    const email = taskManager.currentUser.email;
+    let url = `${API_BASE_URL}/tasks?email=${encodeURIComponent(email)}`
+        + `&limit=${TASK_PAGE_SIZE}&sort=created&order=desc`;
+    if (cursor) url += `&cursor=${encodeURIComponent(cursor)}`;
+
+    const response = await apiFetch(url);
+    if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`);
+    }
+    return response.json();
+}
+
+/**
+ * (Re)load the first page of tasks and the statistics
+ */
 async function loadTasks() {
     if (!taskManager.currentUser) {
         console.warn('No current user');
         return;
     }
 
-    const email = taskManager.currentUser.email;
-    console.log('Loading tasks for:', email);
+    console.log('Loading tasks for:', taskManager.currentUser.email);
 
     try {
-        const response = await fetch(`${API_BASE_URL}/tasks?email=${encodeURIComponent(email)}`);
-
-        console.log('Response status:', response.status);
-
-        if (!response.ok) {
-            throw new Error(`HTTP error! status: ${response.status}`);
-        }
+        const page = await fetchTaskPage(null);
+        console.log('Tasks loaded:', page.tasks.length, page.nextCursor ? '(more available)' : '');
 
-        const tasks = await response.json();
-        console.log('Tasks loaded:', tasks.length);
-
-        taskManager.setTasks(tasks);
+        taskManager.setTasks(page.tasks);
+        taskManager.nextCursor = page.nextCursor;
 
         updateStats();
         renderOverviewTasks();
-        renderAllTasks();
+        renderTaskGrid();
     } catch (error) {
         console.error('Error loading tasks:', error);
 
@@ -125,9 +173,98 @@ async function loadTasks() {
     }
 }
 
+/**
+ * Append the next page of tasks, if there is one and none is already loading
+ */
+async function loadMoreTasks() {
+    if (!taskManager.hasMoreTasks() || taskManager.loadingPage) return;
+
+    taskManager.loadingPage = true;
+    updateLoadMore();
+    try {
+        const page = await fetchTaskPage(taskManager.nextCursor);
+        taskManager.appendTasks(page.tasks);
+        taskManager.nextCursor = page.nextCursor;
+        renderTaskGrid();
+    } catch (error) {
+        console.error('Error loading more tasks:', error);
+        showError('Error loading more tasks');
+    } finally {
+        taskManager.loadingPage = false;
+        updateLoadMore();
+    }
+}
+
+/**
+ * @param {boolean} [visible] false to hide the row for a view that doesn't page
+ */
+function updateLoadMore(visible = true) {
+    const container = document.getElementById('loadMoreTasks');
+    if (!container) return;
+
+    container.hidden = !visible || !taskManager.hasMoreTasks();
+    const button = document.getElementById('loadMoreBtn');
+    button.disabled = taskManager.loadingPage;
+    button.textContent = taskManager.loadingPage ? 'Loading...' : 'Load more tasks';
+}
+
+/**
+ * Load the next page when the "Load more" row scrolls into view
+ */
+function observeLoadMore() {
+    const container = document.getElementById('loadMoreTasks');
+    if (!container || !window.IntersectionObserver) return;
+
+    new IntersectionObserver((entries) => {
+        if (!container.hidden && entries.some(entry => entry.isIntersecting)) loadMoreTasks();
+    }).observe(container);
+}
+
+// ===========================
+// Live Updates (Server-Sent Events)
+// ===========================
+
+function subscribeToTaskEvents() {
+    if (!window.EventSource || !taskManager.currentUser) return;
+
+    // EventSource cannot send an Authorization header; /api/events alone accepts ?token=
+    const token = getApiToken();
+    if (!token) return;
+    taskEvents = new EventSource(`${API_BASE_URL}/events?token=${encodeURIComponent(token)}`);
+
+    let connectedBefore = false;
+    taskEvents.onopen = () => {
+        taskEventsConnected = true;
+        // Events sent while disconnected are lost, so resync after a reconnect
+        if (connectedBefore) loadTasks();
+        connectedBefore = true;
+    };
+    taskEvents.onerror = () => {
+        taskEventsConnected = false;
+    };
+
+    const applyTask = (e) => {
+        taskManager.upsertTask(JSON.parse(e.data));
+        refreshTaskViews();
+    };
+    taskEvents.addEventListener('added', applyTask);
+    taskEvents.addEventListener('updated', applyTask);
+    taskEvents.addEventListener('completed', applyTask);
+    taskEvents.addEventListener('deleted', (e) => {
+        taskManager.removeTask(JSON.parse(e.data).id);
+        refreshTaskViews();
+    });
+    taskEvents.addEventListener('stats', (e) => renderStats(JSON.parse(e.data)));
+}
+
+function refreshTaskViews() {
+    renderOverviewTasks();
+    renderTaskGrid();
+}
+
 async function addTask(taskData) {
     try {
-        const response = await fetch(`${API_BASE_URL}/tasks/add`, {
+        const response = await apiFetch(`${API_BASE_URL}/tasks/add`, {
             method: 'POST',
             headers: { 'Content-Type': 'application/json' },
             body: JSON.stringify({
@@ -139,7 +276,13 @@ async function addTask(taskData) {
         const result = await response.json();
 
         if (result.success) {
-            await loadTasks();
+            if (taskEventsConnected) {
+                taskManager.upsertTask(result.task);
+                updateStats();
+                refreshTaskViews();
+            } else {
+                await loadTasks();
+            }
             showSuccess('Task added successfully!');
             return true;
         } else {
@@ -155,7 +298,7 @@ async function addTask(taskData) {
 
 async function toggleTask(taskId) {
     try {
-        const response = await fetch(`${API_BASE_URL}/tasks/complete`, {
+        const response = await apiFetch(`${API_BASE_URL}/tasks/complete`, {
             method: 'POST',
             headers: { 'Content-Type': 'application/json' },
             body: JSON.stringify({ taskId })
@@ -164,7 +307,7 @@ async function toggleTask(taskId) {
         const result = await response.json();
 
         if (result.success) {
-            await loadTasks();
+            if (!taskEventsConnected) await loadTasks();
             showSuccess('Task updated!');
         } else {
             showError('Failed to update task');
@@ -179,14 +322,20 @@ async function deleteTask(taskId) {
 
 
     try {
-        const response = await fetch(`${API_BASE_URL}/tasks/delete?id=${taskId}`, {
+        const response = await apiFetch(`${API_BASE_URL}/tasks/delete?id=${taskId}`, {
             method: 'DELETE'
         });
 
         const result = await response.json();
 
         if (result.success) {
-            await loadTasks();
+            if (taskEventsConnected) {
+                taskManager.removeTask(taskId);
+                updateStats();
+                refreshTaskViews();
+            } else {
+                await loadTasks();
+            }
             showSuccess('Task deleted!');
         } else {
             showError('Failed to delete task');
@@ -201,20 +350,23 @@ async function deleteTask(taskId) {
 // UI Rendering
 // ===========================
 
-function updateStats() {
-    const today = new Date().toISOString().split('T')[0];
-    const tasks = taskManager.getTasks();
-
-    const stats = {
-        total: tasks.length,
-        completed: tasks.filter(t => t.completed).length,
-        pending: tasks.filter(t => !t.completed).length,
-        dueToday: tasks.filter(t => {
-            const taskDate = t.dueDate.split('T')[0];
-            return taskDate === today && !t.completed;
-        }).length
-    };
+/**
+ * Statistics come from the server, since only some pages of tasks may be loaded
+ */
+async function updateStats() {
+    try {
+        const email = taskManager.currentUser.email;
+        const response = await apiFetch(`${API_BASE_URL}/stats?email=${encodeURIComponent(email)}`);
+        if (!response.ok) {
+            throw new Error(`HTTP error! status: ${response.status}`);
+        }
+        renderStats(await response.json());
+    } catch (error) {
+        console.error('Error loading stats:', error);
+    }
+}
 
+function renderStats(stats) {
     document.getElementById('stat-total').textContent = stats.total;
     document.getElementById('stat-completed').textContent = stats.completed;
     document.getElementById('stat-pending').textContent = stats.pending;
@@ -241,10 +393,13 @@ function renderAllTasks() {
     const taskGrid = document.getElementById('allTasksGrid');
     if (!taskGrid) return;
 
+    updateLoadMore();
     const filteredTasks = taskManager.getFilteredTasks(taskManager.currentFilter);
 
     if (filteredTasks.length === 0) {
-        taskGrid.innerHTML = '<div class="no-tasks"><p>No tasks found.</p></div>';
+        taskGrid.innerHTML = taskManager.hasMoreTasks()
+            ? '<div class="no-tasks"><p>No matching tasks loaded yet.</p></div>'
+            : '<div class="no-tasks"><p>No tasks found.</p></div>';
         return;
     }
 
@@ -360,6 +515,7 @@ function handleTabSwitch(e) {
         switchTab(tabName);
         if (tabName === 'all-tasks') {
             document.querySelector('#all-tasks .page-header h1').textContent = 'All Tasks';
+            renderTaskGrid = () => renderAllTasks();
             renderAllTasks();
         }
     }
@@ -378,6 +534,8 @@ function switchTab(tabName) {
 
 function showCategoryTasks(categoryName) {
     switchTab('all-tasks');
+    renderTaskGrid = () => showCategoryTasks(categoryName);
+    updateLoadMore();
 
     const taskGrid = document.getElementById('allTasksGrid');
     const pageHeader = document.querySelector('#all-tasks .page-header h1');
@@ -398,6 +556,8 @@ function showCategoryTasks(categoryName) {
 
 function showCompletedTasks() {
     switchTab('all-tasks');
+    renderTaskGrid = () => showCompletedTasks();
+    updateLoadMore();
 
     const taskGrid = document.getElementById('allTasksGrid');
     const pageHeader = document.querySelector('#all-tasks .page-header h1');
@@ -416,6 +576,8 @@ function showCompletedTasks() {
 
 function showArchivedTasks() {
     switchTab('all-tasks');
+    renderTaskGrid = () => showArchivedTasks();
+    updateLoadMore(false);
 
     const taskGrid = document.getElementById('allTasksGrid');
     const pageHeader = document.querySelector('#all-tasks .page-header h1');
@@ -445,6 +607,9 @@ function closeModal() {
 
 async function logout() {
     try {
+        if (taskEvents) taskEvents.close();
+        await apiFetch(`${API_BASE_URL}/logout`, { method: 'POST' }).catch(() => {});
+        clearApiSession();
         await supabase.auth.signOut();
         showSuccess('Logged out successfully!');
         setTimeout(() => window.location.href = 'index.html', 1000);
@@ -465,6 +630,8 @@ document.addEventListener('DOMContentLoaded', async () => {
     const isAuthenticated = await checkAuth();
     if (!isAuthenticated) return;
 
+    // Subscribe before the initial load so no change falls between the two
+    subscribeToTaskEvents();
     await loadTasks();
 
     // Event listeners
@@ -474,6 +641,8 @@ document.addEventListener('DOMContentLoaded', async () => {
     document.getElementById('closeModalBtn').addEventListener('click', closeModal);
     document.getElementById('cancelBtn').addEventListener('click', closeModal);
     document.getElementById('logoutBtn').addEventListener('click', logout);
+    document.getElementById('loadMoreBtn')?.addEventListener('click', loadMoreTasks);
+    observeLoadMore();
 
     document.getElementById('priorityFilter')?.addEventListener('change', (e) => {
         taskManager.currentFilter = e.target.value;
@@ -3,6 +3,8 @@
  * Handles user authentication
  */
 
+const API_BASE_URL = 'http://localhost:8080/api';
+
 document.addEventListener('DOMContentLoaded', () => {
     const form = document.getElementById('loginForm');
     form.addEventListener('submit', handleLogin);
@@ -41,6 +43,10 @@ async function handleLogin(event) {
         // Get user with metadata
         const { data: { user } } = await supabase.auth.getUser();
 
+        if (user) {
+            await startApiSession(email, password, user);
+        }
+
         hideLoading();
 
         if (user) {
@@ -57,4 +63,38 @@ async function handleLogin(event) {
         showError('An unexpected error occurred. Please try again.');
         console.error('Login error:', err);
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Log in to the task server too and keep its session token for the dashboard.
+ * Accounts created before the task server knew about them are registered there first.
+ */
+async function startApiSession(email, password, user) {
+    let response = await postJson(`${API_BASE_URL}/login`, { email, password });
+    if (response.status === 401) {
+        const metadata = user.user_metadata || {};
+        await postJson(`${API_BASE_URL}/register`, {
+            firstName: metadata.first_name || email.split('@')[0],
+            lastName: metadata.last_name || '-',
+            email,
+            studentId: metadata.student_id || '',
+            major: metadata.major || '',
+            password
+        });
+        response = await postJson(`${API_BASE_URL}/login`, { email, password });
+    }
+
+    if (!response.ok) {
+        throw new Error(`Task server login failed: ${response.status}`);
+    }
+    const session = await response.json();
+    saveApiSession(session.token, session.expiresAt);
+}
+
+function postJson(url, body) {
+    return fetch(url, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify(body)
+    });
+}
@@ -20,7 +20,7 @@ async function checkAuth() {
     try {
         const { data: { user } } = await supabase.auth.getUser();
 
-        if (!user) {
+        if (!user || !getApiToken()) {
             showError('Please login first');
             window.location.href = 'login.html';
             return false;
@@ -84,17 +84,7 @@ async function loadTaskStatistics() {
         const { data: { user } } = await supabase.auth.getUser();
         if (!user) return;
 
-        const response = await fetch(`${API_BASE_URL}/tasks?email=${encodeURIComponent(user.email)}`);
-
-        if (!response.ok) {
-            throw new Error('Failed to load tasks');
-        }
-
-        const tasks = await response.json();
-
-        // Calculate statistics
-        const total = tasks.length;
-        const completed = tasks.filter(t => t.completed).length;
+        const { total, completed, categories } = await fetchCategoryCounts(user.email);
         const pending = total - completed;
         const rate = total > 0 ? Math.round((completed / total) * 100) : 0;
 
@@ -104,13 +94,6 @@ async function loadTaskStatistics() {
         document.getElementById('profileStatPending').textContent = pending;
         document.getElementById('profileStatRate').textContent = rate + '%';
 
-        // Count by category
-        const categories = {};
-        tasks.forEach(task => {
-            const cat = task.category || 'Other';
-            categories[cat] = (categories[cat] || 0) + 1;
-        });
-
         // Display categories
         renderCategories(categories, total);
     } catch (error) {
@@ -120,6 +103,34 @@ async function loadTaskStatistics() {
     }
 }
 
+/**
+ * Task totals and per-category counts, aggregated server-side by /api/analytics.
+ * Falls back to counting the full task list if analytics is disabled.
+ */
+async function fetchCategoryCounts(email) {
+    const categories = {};
+    const analytics = await apiFetch(`${API_BASE_URL}/analytics?email=${encodeURIComponent(email)}&days=1`);
+    if (analytics.ok) {
+        const report = await analytics.json();
+        report.categories.forEach(entry => {
+            const cat = entry.category || 'Other';
+            categories[cat] = (categories[cat] || 0) + entry.total;
+        });
+        return { total: report.total, completed: report.completed, categories };
+    }
+
+    const response = await apiFetch(`${API_BASE_URL}/tasks?email=${encodeURIComponent(email)}`);
+    if (!response.ok) {
+        throw new Error('Failed to load tasks');
+    }
+    const tasks = await response.json();
+    tasks.forEach(task => {
+        const cat = task.category || 'Other';
+        categories[cat] = (categories[cat] || 0) + 1;
+    });
+    return { total: tasks.length, completed: tasks.filter(t => t.completed).length, categories };
+}
+
 /**
  * Render category statistics
  */
@@ -103,6 +103,7 @@ async function deleteAccount() {
 
     try {
         // Delete account via Supabase
+        clearApiSession();
         await supabase.auth.signOut();
         showSuccess('Account deleted successfully.');
         setTimeout(() => window.location.href = 'index.html', 2000);